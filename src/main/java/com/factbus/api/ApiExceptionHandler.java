@@ -43,6 +43,13 @@ public class ApiExceptionHandler {
         return errorResponse("DUPLICATE_EVENT", ex.getMessage());
     }
 
+    @ExceptionHandler(OverloadedException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public Map<String, Object> handleOverloaded(OverloadedException ex) {
+        log.warn("Publish throttled: {}", ex.getMessage());
+        return errorResponse("OVERLOADED", ex.getMessage());
+    }
+
     @ExceptionHandler({
         MethodArgumentTypeMismatchException.class,
         HttpMessageNotReadableException.class
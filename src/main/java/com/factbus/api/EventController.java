@@ -1,73 +1,281 @@
 package com.factbus.api;
 
+import com.factbus.bus.AckLevel;
+import com.factbus.bus.BatchItemResult;
 import com.factbus.bus.EventBusService;
+import com.factbus.bus.EventJsonCache;
+import com.factbus.bus.SubscriptionFilter;
 import com.factbus.contract.EventCategory;
 import com.factbus.contract.EventEnvelope;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 @RestController
-@RequestMapping("/v1/events")
+@RequestMapping("/v1")
 public class EventController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String NEXT_CURSOR = "X-Next-After-Sequence";
+    private static final int MAX_PAGE = 1000;
+    private static final int EXPORT_PAGE = 500;
+    private static final long MAX_WAIT_MS = 60_000;
+
     private final EventBusService eventBusService;
+    private final ObjectMapper objectMapper;
+    private final EventJsonCache jsonCache;
+    // The MVC async executor: platform or virtual threads together with request handling
+    private final TaskExecutor changeReads;
 
-    public EventController(EventBusService eventBusService) {
+    public EventController(EventBusService eventBusService, ObjectMapper objectMapper, EventJsonCache jsonCache,
+                           @Qualifier("applicationTaskExecutor") TaskExecutor changeReads) {
         this.eventBusService = eventBusService;
+        this.objectMapper = objectMapper;
+        this.jsonCache = jsonCache;
+        this.changeReads = changeReads;
     }
 
-    @PostMapping
-    public Map<String, Object> publish(@RequestBody EventEnvelope event) {
-        EventEnvelope published = eventBusService.publish(event);
-        return Map.of(
+    /**
+     * {@code ack=reacted} (default) answers once arbitration/FDR are done,
+     * {@code ack=appended} once the event is in the log, {@code ack=none} right after
+     * validation with a 202 receipt that has no sequence number.
+     */
+    @PostMapping("/events")
+    public ResponseEntity<Map<String, Object>> publish(@RequestBody EventEnvelope event,
+                                                       @RequestParam(defaultValue = "reacted") String ack) {
+        AckLevel level = ackLevel(ack);
+        EventEnvelope published = eventBusService.publish(event, level);
+        if (level == AckLevel.NONE) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                "status", "queued",
+                "event_id", published.getEventId()
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
             "status", "accepted",
             "event_id", published.getEventId(),
             "sequence_number", published.getSequenceNumber()
-        );
+        ));
+    }
+
+    /**
+     * Batch publish from a JSON array. {@code mode=atomic} (default) appends nothing
+     * unless every item is accepted; {@code mode=best_effort} appends what it can.
+     * A rejected atomic batch answers 400 with the per-item results. Appended items
+     * get contiguous sequences in request order. Duplicates are decided per item: an
+     * event_id another request publishes while this batch is in flight comes back as
+     * that item's DUPLICATE_EVENT, and the rest of the batch is still appended, atomic
+     * or not.
+     */
+    @PostMapping(value = "/events:batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> publishBatch(@RequestBody List<EventEnvelope> events,
+                                                            @RequestParam(defaultValue = "atomic") String mode) {
+        boolean atomic = isAtomic(mode);
+        return batchResponse(eventBusService.publishBatch(events, atomic), atomic);
+    }
+
+    /** Batch publish from newline-delimited JSON, one envelope per line. */
+    @PostMapping(value = "/events:batch", consumes = NDJSON)
+    public ResponseEntity<Map<String, Object>> publishBatchNdjson(@RequestBody String body,
+                                                                  @RequestParam(defaultValue = "atomic") String mode) {
+        boolean atomic = isAtomic(mode);
+        List<EventEnvelope> events = new ArrayList<>();
+        String[] lines = body.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].isBlank()) {
+                continue;
+            }
+            try {
+                events.add(objectMapper.readValue(lines[i], EventEnvelope.class));
+            } catch (JsonProcessingException ex) {
+                throw new IllegalArgumentException("line " + (i + 1) + " is not a valid event: " + ex.getOriginalMessage());
+            }
+        }
+        return batchResponse(eventBusService.publishBatch(events, atomic), atomic);
     }
 
-    @GetMapping
-    public List<EventEnvelope> query(@RequestParam(required = false) String traceId,
+    /**
+     * One page of matching events, oldest first, at most 1000. The
+     * {@code X-Next-After-Sequence} header carries the cursor for the next page: pass
+     * it back as {@code after_sequence} until a page comes back empty. Writes each
+     * event's cached JSON encoding instead of serializing the list again.
+     */
+    @GetMapping(value = "/events", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> query(@RequestParam(required = false) String traceId,
                                     @RequestParam(required = false) EventCategory eventCategory,
                                     @RequestParam(required = false) String subjectType,
                                     @RequestParam(required = false) String subjectId,
+                                    @RequestParam(name = "after_sequence", defaultValue = "0") long afterSequence,
                                     @RequestParam(defaultValue = "100") int limit) {
-        return eventBusService.query(
+        List<EventEnvelope> events = eventBusService.query(
             Optional.ofNullable(traceId),
             Optional.ofNullable(eventCategory),
             Optional.ofNullable(subjectType),
             Optional.ofNullable(subjectId),
-            Math.min(limit, 1000)
+            cursor(afterSequence),
+            Math.min(limit, MAX_PAGE)
         );
+        long next = events.isEmpty() ? afterSequence : events.get(events.size() - 1).getSequenceNumber();
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(NEXT_CURSOR, String.valueOf(next))
+            // Arbitrary history: must not evict the tail the streams keep cached
+            .body(jsonCache.arrayUncached(events));
+    }
+
+    /**
+     * Streams every matching event after {@code after_sequence} as NDJSON, one
+     * envelope per line, reading the store a page at a time so memory stays flat
+     * however long the history. Stops at the sequence that was latest when the export
+     * started; the last line's sequence_number is the cursor to resume from.
+     */
+    @GetMapping(value = "/events/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) String traceId,
+                                                        @RequestParam(required = false) EventCategory eventCategory,
+                                                        @RequestParam(required = false) String subjectType,
+                                                        @RequestParam(required = false) String subjectId,
+                                                        @RequestParam(name = "after_sequence", defaultValue = "0")
+                                                        long afterSequence) {
+        long from = cursor(afterSequence);
+        long through = eventBusService.latestSequence();
+        StreamingResponseBody body = out -> {
+            long cursor = from;
+            while (cursor < through) {
+                List<EventEnvelope> page = eventBusService.query(
+                    Optional.ofNullable(traceId),
+                    Optional.ofNullable(eventCategory),
+                    Optional.ofNullable(subjectType),
+                    Optional.ofNullable(subjectId),
+                    cursor,
+                    EXPORT_PAGE
+                );
+                for (EventEnvelope event : page) {
+                    if (event.getSequenceNumber() > through) {
+                        break;
+                    }
+                    out.write(jsonCache.bytesUncached(event));
+                    out.write('\n');
+                }
+                out.flush();
+                if (page.size() < EXPORT_PAGE) {
+                    break;
+                }
+                cursor = page.get(page.size() - 1).getSequenceNumber();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Long-poll for a subject's events after {@code after_sequence}: answers at once if
+     * there are any, otherwise parks the request (no thread held) until one is
+     * appended or {@code wait_ms} passes, then answers with the delta, empty only on
+     * timeout. A wake-up that finds nothing past the cursor parks again.
+     * {@code next_after_sequence} is the cursor for the next call.
+     */
+    @GetMapping(value = "/events/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ResponseEntity<byte[]>> changes(@RequestParam(name = "subject_type") String subjectType,
+                                                          @RequestParam(name = "subject_id") String subjectId,
+                                                          @RequestParam(name = "after_sequence", defaultValue = "0")
+                                                          long afterSequence,
+                                                          @RequestParam(name = "wait_ms", defaultValue = "30000")
+                                                          long waitMs,
+                                                          @RequestParam(defaultValue = "100") int limit) {
+        long cursor = cursor(afterSequence);
+        if (waitMs < 0 || waitMs > MAX_WAIT_MS) {
+            throw new IllegalArgumentException("wait_ms must be between 0 and " + MAX_WAIT_MS + ", got: " + waitMs);
+        }
+        int pageSize = Math.min(limit, MAX_PAGE);
+        Supplier<List<EventEnvelope>> read = () -> eventBusService.query(
+            Optional.empty(), Optional.empty(), Optional.of(subjectType), Optional.of(subjectId), cursor, pageSize);
+
+        DeferredResult<ResponseEntity<byte[]>> result =
+            new DeferredResult<>(Math.max(waitMs, 1), changesResponse(cursor, List.of(), false));
+        if (waitMs == 0) {
+            result.setResult(changesResponse(cursor, read.get(), false));
+            return result;
+        }
+        SubscriptionFilter filter = new SubscriptionFilter(null, null, subjectType, subjectId, null);
+        Set<String> waiters = ConcurrentHashMap.newKeySet();
+        result.onCompletion(() -> waiters.forEach(eventBusService::cancelChange));
+        parkForChanges(result, filter, cursor, read, waiters, false);
+        return result;
+    }
+
+    /**
+     * Registers a wake-up, then reads; answers if the read found events, otherwise
+     * leaves the request parked. A wake-up re-reads on {@link #changeReads} (the
+     * fan-out stage that fires it must not block) and parks again if the event was at
+     * or below the cursor. Only a woken read is of the tail, so only its bytes are cached.
+     */
+    private void parkForChanges(DeferredResult<ResponseEntity<byte[]>> result, SubscriptionFilter filter,
+                                long cursor, Supplier<List<EventEnvelope>> read, Set<String> waiters,
+                                boolean woken) {
+        // Register before reading so an append in between still wakes us
+        waiters.add(eventBusService.awaitChange(filter, () -> changeReads.execute(
+            () -> parkForChanges(result, filter, cursor, read, waiters, true))));
+        if (result.isSetOrExpired()) {
+            waiters.forEach(eventBusService::cancelChange);
+            return;
+        }
+        List<EventEnvelope> pending = read.get();
+        if (!pending.isEmpty()) {
+            result.setResult(changesResponse(cursor, pending, woken));
+        }
     }
 
-    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    /**
+     * Live event stream. Each frame's id is the event's sequence number, so a client
+     * reconnecting with {@code Last-Event-ID} (or {@code from_sequence}, inclusive)
+     * first gets the backlog it missed and then continues live. Filters are all
+     * optional and combine with AND.
+     */
+    @GetMapping(value = "/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public SseEmitter stream(@RequestParam(required = false) String traceId,
-                            @RequestParam(required = false) EventCategory eventCategory) {
+                            @RequestParam(required = false) EventCategory eventCategory,
+                            @RequestParam(required = false) String subjectType,
+                            @RequestParam(required = false) String subjectId,
+                            @RequestParam(required = false) String eventName,
+                            @RequestParam(name = "from_sequence", required = false) Long fromSequence,
+                            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
         SseEmitter emitter = new SseEmitter(0L);
-        String subscriptionId = eventBusService.subscribe(event -> {
-            if (!matchesTrace(traceId, event) || !matchesCategory(eventCategory, event)) {
-                return;
-            }
+        SubscriptionFilter filter = new SubscriptionFilter(traceId, eventCategory, subjectType, subjectId, eventName);
+        String subscriptionId = eventBusService.subscribe(filter, resumeFrom(lastEventId, fromSequence), event -> {
             try {
                 emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getSequenceNumber()))
                     .name("event")
-                    .data(event));
+                    .data(jsonCache.bytes(event), MediaType.APPLICATION_JSON));
             } catch (IOException ex) {
                 emitter.completeWithError(ex);
             }
-        });
+        }, emitter::complete);
 
         emitter.onCompletion(() -> eventBusService.unsubscribe(subscriptionId));
         emitter.onTimeout(() -> eventBusService.unsubscribe(subscriptionId));
@@ -75,11 +283,62 @@ public class EventController {
         return emitter;
     }
 
-    private boolean matchesTrace(String traceId, EventEnvelope event) {
-        return traceId == null || traceId.equals(event.getTraceId());
+    private ResponseEntity<byte[]> changesResponse(long afterSequence, List<EventEnvelope> events, boolean tail) {
+        long next = events.isEmpty() ? afterSequence : events.get(events.size() - 1).getSequenceNumber();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes("{\"events\":".getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(tail ? jsonCache.array(events) : jsonCache.arrayUncached(events));
+        body.writeBytes((",\"next_after_sequence\":" + next + "}").getBytes(StandardCharsets.UTF_8));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body.toByteArray());
+    }
+
+    private long cursor(long afterSequence) {
+        if (afterSequence < 0) {
+            throw new IllegalArgumentException("after_sequence must be >= 0, got: " + afterSequence);
+        }
+        return afterSequence;
+    }
+
+    /** @return first sequence to replay, 0 for live only; a reconnect's Last-Event-ID wins */
+    private long resumeFrom(String lastEventId, Long fromSequence) {
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                return Long.parseLong(lastEventId.trim()) + 1;
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Last-Event-ID must be a sequence number, got: " + lastEventId);
+            }
+        }
+        if (fromSequence != null && fromSequence < 1) {
+            throw new IllegalArgumentException("from_sequence must be >= 1, got: " + fromSequence);
+        }
+        return fromSequence == null ? 0 : fromSequence;
+    }
+
+    private AckLevel ackLevel(String ack) {
+        return switch (ack) {
+            case "reacted" -> AckLevel.REACTED;
+            case "appended" -> AckLevel.APPENDED;
+            case "none" -> AckLevel.NONE;
+            default -> throw new IllegalArgumentException("ack must be reacted, appended or none, got: " + ack);
+        };
+    }
+
+    private boolean isAtomic(String mode) {
+        return switch (mode) {
+            case "atomic" -> true;
+            case "best_effort" -> false;
+            default -> throw new IllegalArgumentException("mode must be atomic or best_effort, got: " + mode);
+        };
     }
 
-    private boolean matchesCategory(EventCategory eventCategory, EventEnvelope event) {
-        return eventCategory == null || eventCategory == event.getEventCategory();
+    private ResponseEntity<Map<String, Object>> batchResponse(List<BatchItemResult> results, boolean atomic) {
+        long accepted = results.stream().filter(r -> r.status() == BatchItemResult.Status.ACCEPTED).count();
+        String status = accepted == results.size() ? "accepted" : accepted == 0 ? "rejected" : "partial";
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", status);
+        body.put("accepted", accepted);
+        body.put("rejected", results.size() - accepted);
+        body.put("results", results);
+        return ResponseEntity.status(atomic && accepted == 0 ? HttpStatus.BAD_REQUEST : HttpStatus.OK).body(body);
     }
 }
@@ -0,0 +1,22 @@
+package com.factbus.api;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class EventStreamSocketConfiguration implements WebSocketConfigurer {
+
+    private final EventStreamSocketHandler handler;
+
+    public EventStreamSocketConfiguration(EventStreamSocketHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(handler, "/v1/events/ws");
+    }
+}
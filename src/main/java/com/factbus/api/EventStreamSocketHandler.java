@@ -0,0 +1,240 @@
+package com.factbus.api;
+
+import com.factbus.bus.EventBinaryCache;
+import com.factbus.bus.EventBusService;
+import com.factbus.bus.SubscriptionFilter;
+import com.factbus.bus.ThreadMode;
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Binary event stream over WebSocket ({@code /v1/events/ws}) with credit-based flow control.
+ *
+ * - Every binary frame is one self-contained {@code EventEnvelopeCodec} record, encoded
+ *   once per event and shared by all connections ({@link EventBinaryCache})
+ * - The server sends only while the client has credits; text frames
+ *   {@code {"credit": n}} grant more, {@code {"filter": {...}}} (trace_id, event_category,
+ *   subject_type, subject_id, event_name) replaces the filter from the current position on
+ * - Each connection is a cursor into the log, not a queue: it reads pages from the
+ *   store as credits allow and parks on a change waiter when caught up, so a slow
+ *   consumer costs no server-side buffer
+ * - Handshake params: the filter fields as in {@code /events/stream}, {@code from_sequence}
+ *   (default: live only) and {@code credits} (default 0)
+ * - A pump holds its thread while it writes, so pumps are never queued behind each
+ *   other: in {@link ThreadMode#PLATFORM} an unbounded cached pool gives every busy
+ *   pump a platform thread (idle ones expire), in {@link ThreadMode#VIRTUAL} each pump
+ *   gets a virtual thread and a pump blocked on a slow socket write costs no carrier
+ */
+@Component
+public class EventStreamSocketHandler extends AbstractWebSocketHandler implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventStreamSocketHandler.class);
+    private static final int PAGE = 500;
+
+    private final EventBusService eventBusService;
+    private final EventBinaryCache binaryCache;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<String, Connection> connections = new ConcurrentHashMap<>();
+    private final ExecutorService pumps;
+
+    public EventStreamSocketHandler(EventBusService eventBusService, EventBinaryCache binaryCache,
+                                    ObjectMapper objectMapper, ThreadMode threadMode) {
+        this.eventBusService = eventBusService;
+        this.binaryCache = binaryCache;
+        this.objectMapper = objectMapper;
+        ThreadFactory threads = threadMode.factory("factbus-ws-pump-");
+        this.pumps = threadMode == ThreadMode.VIRTUAL
+            ? Executors.newThreadPerTaskExecutor(threads)
+            : Executors.newCachedThreadPool(threads);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+        Connection connection;
+        try {
+            SubscriptionFilter filter = new SubscriptionFilter(
+                params.getFirst("traceId"),
+                Optional.ofNullable(params.getFirst("eventCategory")).map(EventCategory::valueOf).orElse(null),
+                params.getFirst("subjectType"),
+                params.getFirst("subjectId"),
+                params.getFirst("eventName"));
+            String from = params.getFirst("from_sequence");
+            long cursor = from == null ? eventBusService.latestSequence() : Long.parseLong(from) - 1;
+            if (cursor < 0) {
+                throw new IllegalArgumentException("from_sequence must be >= 1, got: " + from);
+            }
+            connection = new Connection(session, filter, cursor);
+            connection.grant(Long.parseLong(Optional.ofNullable(params.getFirst("credits")).orElse("0")));
+        } catch (IllegalArgumentException ex) {
+            session.close(CloseStatus.BAD_DATA.withReason(ex.getMessage()));
+            return;
+        }
+        connections.put(session.getId(), connection);
+        connection.schedule();
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        Connection connection = connections.get(session.getId());
+        if (connection == null) {
+            return;
+        }
+        Control control;
+        try {
+            control = objectMapper.readValue(message.getPayload(), Control.class);
+            if (control.credit() != null) {
+                connection.grant(control.credit());
+            }
+        } catch (JsonProcessingException | IllegalArgumentException ex) {
+            session.close(CloseStatus.BAD_DATA.withReason("invalid control message: " + ex.getMessage()));
+            return;
+        }
+        if (control.filter() != null) {
+            connection.filter = control.filter().toSubscriptionFilter();
+        }
+        connection.schedule();
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Connection connection = connections.remove(session.getId());
+        if (connection != null) {
+            connection.open = false;
+            connection.schedule();
+        }
+    }
+
+    @Override
+    public void close() {
+        pumps.shutdownNow();
+    }
+
+    /** Client control frame; either field may be absent. */
+    record Control(Long credit, Filter filter) {}
+
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    record Filter(String traceId, EventCategory eventCategory, String subjectType, String subjectId,
+                  String eventName) {
+
+        SubscriptionFilter toSubscriptionFilter() {
+            return new SubscriptionFilter(traceId, eventCategory, subjectType, subjectId, eventName);
+        }
+    }
+
+    private final class Connection {
+
+        private final WebSocketSession session;
+        private final AtomicLong credits = new AtomicLong();
+        // Pending pump requests; only the caller that moves it off 0 starts a pump
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile SubscriptionFilter filter;
+        private volatile boolean open = true;
+        // Owned by the pump, which never runs concurrently with itself
+        private long cursor;
+        private String waiterId;
+
+        Connection(WebSocketSession session, SubscriptionFilter filter, long cursor) {
+            this.session = session;
+            this.filter = filter;
+            this.cursor = cursor;
+        }
+
+        void grant(long credit) {
+            if (credit < 0) {
+                throw new IllegalArgumentException("credit must be >= 0, got: " + credit);
+            }
+            credits.accumulateAndGet(credit, (current, extra) -> Math.min(current + extra, Integer.MAX_VALUE));
+        }
+
+        void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                pumps.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                try {
+                    pump();
+                } catch (IOException | RuntimeException ex) {
+                    log.warn("WebSocket stream {} failed: {}", session.getId(), ex.getMessage());
+                    open = false;
+                    closeQuietly();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /** Sends what the credits allow, then parks on a change waiter if caught up. */
+        private void pump() throws IOException {
+            if (waiterId != null) {
+                eventBusService.cancelChange(waiterId);
+                waiterId = null;
+            }
+            if (!open || !session.isOpen()) {
+                return;
+            }
+            SubscriptionFilter current = filter;
+            while (credits.get() > 0) {
+                List<EventEnvelope> page = eventBusService.query(
+                    Optional.ofNullable(current.traceId()),
+                    Optional.ofNullable(current.category()),
+                    Optional.ofNullable(current.subjectType()),
+                    Optional.ofNullable(current.subjectId()),
+                    cursor,
+                    (int) Math.min(credits.get(), PAGE));
+                if (page.isEmpty()) {
+                    if (waiterId != null) {
+                        return;
+                    }
+                    // Register, then read once more so an append in between is not missed
+                    waiterId = eventBusService.awaitChange(current, this::schedule);
+                    continue;
+                }
+                for (EventEnvelope event : page) {
+                    cursor = event.getSequenceNumber();
+                    // The store query does not filter by event_name
+                    if (current.matches(event)) {
+                        session.sendMessage(new BinaryMessage(binaryCache.bytes(event)));
+                        credits.decrementAndGet();
+                    }
+                }
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                session.close(CloseStatus.SERVER_ERROR);
+            } catch (IOException ignored) {
+                // already closing
+            }
+        }
+    }
+}
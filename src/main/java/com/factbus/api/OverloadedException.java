@@ -0,0 +1,12 @@
+package com.factbus.api;
+
+/**
+ * Thrown when the bus refuses new work because a downstream stage is saturated.
+ * Producers should back off and retry.
+ */
+public class OverloadedException extends RuntimeException {
+
+    public OverloadedException(String message) {
+        super(message);
+    }
+}
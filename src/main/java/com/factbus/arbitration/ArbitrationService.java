@@ -1,5 +1,7 @@
 package com.factbus.arbitration;
 
+import com.factbus.bus.EventReactor;
+import com.factbus.bus.EventStore;
 import com.factbus.contract.EventCategory;
 import com.factbus.contract.EventEnvelope;
 import com.factbus.contract.ProducerType;
@@ -11,6 +13,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -24,7 +27,7 @@ import java.util.UUID;
  * - Input: proposal + current projection facts
  * - Output: DECISION_EVENT(approved) or DECISION_EVENT(rejected) with retry_hint
  */
-public class ArbitrationService {
+public class ArbitrationService implements EventReactor {
 
     private static final Logger log = LoggerFactory.getLogger(ArbitrationService.class);
 
@@ -37,6 +40,34 @@ public class ArbitrationService {
         this.policies = List.copyOf(policies);
     }
 
+    @Override
+    public String name() {
+        return "arbitration";
+    }
+
+    @Override
+    public boolean handles(EventEnvelope event) {
+        return event.getEventCategory() == EventCategory.PROPOSAL_EVENT;
+    }
+
+    /**
+     * Auto-arbitrates an appended PROPOSAL_EVENT against the confirmed facts of its subject.
+     */
+    @Override
+    public List<EventEnvelope> react(EventEnvelope proposal, EventStore eventStore) {
+        List<EventEnvelope> subjectFacts = eventStore.query(
+            Optional.empty(),
+            Optional.of(EventCategory.FACT_EVENT),
+            proposal.getSubject() != null ? Optional.of(proposal.getSubject().getType()) : Optional.empty(),
+            proposal.getSubject() != null ? Optional.of(proposal.getSubject().getId()) : Optional.empty(),
+            1000
+        );
+        EventEnvelope decision = arbitrate(proposal, subjectFacts);
+        log.info("Arbitration produced DECISION_EVENT outcome={} for proposal={}",
+            decision.getPayload().get("outcome"), proposal.getEventId());
+        return List.of(decision);
+    }
+
     /**
      * Arbitrate a PROPOSAL_EVENT.
      *
@@ -0,0 +1,17 @@
+package com.factbus.bus;
+
+/**
+ * How far {@link EventBusService#publish(com.factbus.contract.EventEnvelope, AckLevel)}
+ * gets before it returns to the producer.
+ *
+ * - NONE: validated and queued; the append and reactions happen later, failures are only logged
+ * - APPENDED: the event is in the log (durable as far as the store's durability mode goes);
+ *   arbitration, FDR and subscriber fan-out continue in the {@link ReactorPipeline}
+ * - REACTED: additionally waits for the reactions, so decisions and derived facts are
+ *   queryable on return and queued for every subscriber (the default)
+ */
+public enum AckLevel {
+    NONE,
+    APPENDED,
+    REACTED
+}
@@ -0,0 +1,52 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventEnvelope;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+/**
+ * Outcome of one item of a batch publish, reported at the item's position in the request.
+ *
+ * - accepted: appended (and reacted to) with {@code sequence_number}
+ * - rejected: failed validation or dedup; {@code error_code} uses the single-publish codes
+ * - aborted: valid, but not appended because another item rejected an atomic batch
+ * - failed: appended as {@code sequence_number}, but the post-append reactions failed
+ */
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult(
+    @JsonProperty("index") int index,
+    @JsonProperty("status") Status status,
+    @JsonProperty("event_id") String eventId,
+    @JsonProperty("sequence_number") Long sequenceNumber,
+    @JsonProperty("error_code") String errorCode,
+    @JsonProperty("message") String message
+) {
+
+    public enum Status {
+        @JsonProperty("accepted") ACCEPTED,
+        @JsonProperty("rejected") REJECTED,
+        @JsonProperty("aborted") ABORTED,
+        @JsonProperty("failed") FAILED
+    }
+
+    static BatchItemResult accepted(int index, EventEnvelope event) {
+        return new BatchItemResult(index, Status.ACCEPTED, event.getEventId(), event.getSequenceNumber(), null, null);
+    }
+
+    static BatchItemResult rejected(int index, EventEnvelope event, String errorCode, String message) {
+        return new BatchItemResult(index, Status.REJECTED, event.getEventId(), null, errorCode, message);
+    }
+
+    static BatchItemResult aborted(int index, EventEnvelope event) {
+        return new BatchItemResult(index, Status.ABORTED, event.getEventId(), null, null,
+            "not appended: another item rejected the atomic batch");
+    }
+
+    static BatchItemResult failed(int index, EventEnvelope event, String message) {
+        return new BatchItemResult(index, Status.FAILED, event.getEventId(), event.getSequenceNumber(),
+            "REACTION_FAILED", message);
+    }
+}
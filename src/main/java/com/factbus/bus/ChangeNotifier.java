@@ -0,0 +1,56 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventEnvelope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One-shot wake-ups for long-polling readers: a waiter registers a filter and a
+ * callback, and the first fanned-out event matching the filter runs the callback
+ * and removes the waiter. Waiters hold no thread; they are routed through the same
+ * {@link SubscriptionRouter} index as subscriptions.
+ */
+final class ChangeNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeNotifier.class);
+
+    private final SubscriptionRouter<Waiter> router = new SubscriptionRouter<>();
+    private final ConcurrentHashMap<String, Waiter> waiters = new ConcurrentHashMap<>();
+
+    String register(SubscriptionFilter filter, Runnable onChange) {
+        Waiter waiter = new Waiter(UUID.randomUUID().toString(), filter, onChange);
+        waiters.put(waiter.id(), waiter);
+        router.add(filter, waiter);
+        return waiter.id();
+    }
+
+    void cancel(String id) {
+        Waiter waiter = waiters.remove(id);
+        if (waiter != null) {
+            router.remove(waiter.filter(), waiter);
+        }
+    }
+
+    /** Fires and removes every waiter matching {@code event}; runs on the caller's thread. */
+    void notify(EventEnvelope event) {
+        router.route(event, waiter -> {
+            if (waiters.remove(waiter.id(), waiter)) {
+                router.remove(waiter.filter(), waiter);
+                try {
+                    waiter.onChange().run();
+                } catch (RuntimeException ex) {
+                    log.warn("Change callback failed for waiter {}: {}", waiter.id(), ex.getMessage());
+                }
+            }
+        });
+    }
+
+    int size() {
+        return waiters.size();
+    }
+
+    private record Waiter(String id, SubscriptionFilter filter, Runnable onChange) {}
+}
@@ -0,0 +1,125 @@
+package com.factbus.bus;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Segmented append-only log made of fixed-size chunks.
+ *
+ * Appends write into the current chunk and allocate a new chunk only every
+ * {@value #CHUNK_SIZE} entries, so they stay O(1) and never copy existing entries
+ * (only the small chunk directory is copied when it fills up).
+ *
+ * Writes must be serialized by the owner. Readers never lock: they read the
+ * published high-water mark ({@link #size()}) and may then read any position below
+ * it, because every chunk and directory write happens before the size that covers it.
+ *
+ * For concurrent producers there is a second write path: each writer fills its own
+ * reserved position with {@link #set}, then waits for its turn ({@link #awaitTurn})
+ * and {@link #publish}es, so the high-water mark only ever covers a gap-free prefix.
+ * A writer that fails after reserving its position must still {@link #skip} it,
+ * or every later writer waits for its turn forever; the position then reads as
+ * {@code null}. The two paths must not be mixed on one log.
+ */
+final class ChunkedLog<T> {
+
+    static final int CHUNK_SHIFT = 12;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile Object[][] chunks = new Object[16][];
+    private volatile long size;
+
+    void append(T entry) {
+        long n = size;
+        int chunkIndex = (int) (n >>> CHUNK_SHIFT);
+        Object[][] directory = chunks;
+        if (chunkIndex == directory.length) {
+            directory = Arrays.copyOf(directory, directory.length << 1);
+        }
+        if (directory[chunkIndex] == null) {
+            directory[chunkIndex] = new Object[CHUNK_SIZE];
+        }
+        directory[chunkIndex][(int) (n & CHUNK_MASK)] = entry;
+        chunks = directory;
+        size = n + 1;
+    }
+
+    /**
+     * Writes a reserved position; positions must be distinct across writers.
+     * The entry is not visible until {@link #publish} covers it.
+     */
+    void set(long position, T entry) {
+        chunkFor((int) (position >>> CHUNK_SHIFT))[(int) (position & CHUNK_MASK)] = entry;
+    }
+
+    /** Waits until every position below {@code position} is published. */
+    void awaitTurn(long position) {
+        for (int spins = 0; size != position; spins++) {
+            if (spins < 128) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    /** Makes {@code position} visible; only valid once {@link #awaitTurn} returned for it. */
+    void publish(long position) {
+        size = position + 1;
+    }
+
+    /** Publishes {@code position} as a hole ({@code null}) once its turn comes. */
+    void skip(long position) {
+        // Clears the entry if the write got that far; allocates nothing, since allocation may be what failed
+        Object[][] directory = chunks;
+        int chunkIndex = (int) (position >>> CHUNK_SHIFT);
+        if (chunkIndex < directory.length && directory[chunkIndex] != null) {
+            directory[chunkIndex][(int) (position & CHUNK_MASK)] = null;
+        }
+        awaitTurn(position);
+        publish(position);
+    }
+
+    /** Published high-water mark: positions {@code [0, size)} are readable. */
+    long size() {
+        return size;
+    }
+
+    // Chunks are allocated under the monitor, only once every CHUNK_SIZE positions
+    private Object[] chunkFor(int chunkIndex) {
+        Object[][] directory = chunks;
+        if (chunkIndex < directory.length && directory[chunkIndex] != null) {
+            return directory[chunkIndex];
+        }
+        synchronized (this) {
+            directory = chunks;
+            if (chunkIndex >= directory.length) {
+                directory = Arrays.copyOf(directory, Math.max(directory.length << 1, chunkIndex + 1));
+            }
+            if (directory[chunkIndex] == null) {
+                directory[chunkIndex] = new Object[CHUNK_SIZE];
+            }
+            chunks = directory;
+            return directory[chunkIndex];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(long position) {
+        Object[][] directory = chunks;
+        int chunkIndex = (int) (position >>> CHUNK_SHIFT);
+        // A skipped position may lie in a chunk that was never allocated
+        if (chunkIndex >= directory.length || directory[chunkIndex] == null) {
+            return null;
+        }
+        return (T) directory[chunkIndex][(int) (position & CHUNK_MASK)];
+    }
+
+    /** Snapshot of the entries published at call time, in append order, without holes. */
+    Stream<T> stream() {
+        return LongStream.range(0, size).mapToObj(this::get).filter(Objects::nonNull);
+    }
+}
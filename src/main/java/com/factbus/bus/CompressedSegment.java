@@ -0,0 +1,348 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventEnvelopeCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Sealed, Deflate-compressed copy of a {@link LogSegment}.
+ *
+ * File layout:
+ * <pre>
+ *   [block 0] ... [block n-1]
+ *   int  block_count
+ *   per block: long first_sequence, long file_offset, int compressed_length, int raw_length
+ *   long index_offset
+ *   int  MAGIC
+ * </pre>
+ *
+ * Each block is the zlib-compressed concatenation of whole records in the
+ * {@link LogSegment} record layout. The block index lets a point or range read
+ * inflate only the blocks that cover the requested sequences; the most recently
+ * inflated block is kept so sequential point reads do not inflate it again.
+ *
+ * A block that inflates to fewer bytes than its index entry records, or a record
+ * whose CRC does not match its body, fails the read (and so the recovery visit)
+ * with an {@link IllegalStateException}; unlike the active segment there is no
+ * torn tail to cut off, so a damaged compressed segment is never read past.
+ */
+final class CompressedSegment implements Segment {
+
+    static final String SUFFIX = ".zsegment";
+
+    static final int MAGIC = 0x46425A31; // "FBZ1"
+    private static final int INDEX_ENTRY_BYTES = 24;
+
+    private record Block(int index, byte[] raw) {}
+
+    private final Path path;
+    private final long baseSequence;
+    private final long lastSequence;
+    private final EventEnvelopeCodec.Dictionary dictionary;
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped;
+    private final long[] blockFirstSequences;
+    private final long[] blockOffsets;
+    private final int[] blockCompressedLengths;
+    private final int[] blockRawLengths;
+    private final LongAdder inflatedBlocks = new LongAdder();
+
+    private volatile Block lastBlock;
+
+    private CompressedSegment(Path path, long baseSequence, EventEnvelopeCodec.Dictionary dictionary,
+                              FileChannel channel, MappedByteBuffer mapped) {
+        this.path = path;
+        this.baseSequence = baseSequence;
+        this.dictionary = dictionary;
+        this.channel = channel;
+        this.mapped = mapped;
+
+        int trailer = mapped.capacity() - 12;
+        if (trailer < 4 || mapped.getInt(trailer + 8) != MAGIC) {
+            throw new IllegalStateException("not a compressed segment: " + path);
+        }
+        int indexOffset = (int) mapped.getLong(trailer);
+        int blockCount = mapped.getInt(indexOffset);
+        this.blockFirstSequences = new long[blockCount];
+        this.blockOffsets = new long[blockCount];
+        this.blockCompressedLengths = new int[blockCount];
+        this.blockRawLengths = new int[blockCount];
+        int entry = indexOffset + 4;
+        for (int i = 0; i < blockCount; i++, entry += INDEX_ENTRY_BYTES) {
+            blockFirstSequences[i] = mapped.getLong(entry);
+            blockOffsets[i] = mapped.getLong(entry + 8);
+            blockCompressedLengths[i] = mapped.getInt(entry + 16);
+            blockRawLengths[i] = mapped.getInt(entry + 20);
+        }
+        this.lastSequence = blockCount == 0 ? baseSequence - 1 : lastSequenceOf(blockCount - 1);
+    }
+
+    /**
+     * Compresses a sealed segment into {@code target}. The file is written under a
+     * temporary name, forced, and atomically renamed, so a crash never leaves a
+     * partial {@code .zsegment} behind.
+     */
+    static CompressedSegment compress(LogSegment source, Path target, int blockBytes, int level) {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Deflater deflater = new Deflater(level);
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteArrayOutputStream index = new ByteArrayOutputStream();
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(blockBytes + blockBytes / 4);
+            long[] blockFirst = {-1};
+            long[] position = {0};
+            int[] blockCount = {0};
+
+            source.scan(source.baseSequence(), source.lastSequence(), (segment, sequence, body) -> {
+                if (blockFirst[0] < 0) {
+                    blockFirst[0] = sequence;
+                }
+                ByteBuffer header = ByteBuffer.allocate(LogSegment.HEADER_BYTES);
+                header.putInt(body.length).putInt(LogSegment.crc32(body)).putLong(sequence);
+                raw.writeBytes(header.array());
+                raw.writeBytes(body);
+                if (raw.size() >= blockBytes) {
+                    try {
+                        position[0] += writeBlock(out, deflater, raw, blockFirst[0], position[0], index);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    blockCount[0]++;
+                    blockFirst[0] = -1;
+                }
+            });
+            if (raw.size() > 0) {
+                position[0] += writeBlock(out, deflater, raw, blockFirst[0], position[0], index);
+                blockCount[0]++;
+            }
+
+            byte[] entries = index.toByteArray();
+            ByteBuffer footer = ByteBuffer.allocate(4 + entries.length + 12);
+            footer.putInt(blockCount[0]).put(entries).putLong(position[0]).putInt(MAGIC).flip();
+            writeFully(out, footer);
+            out.force(true);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to compress segment into " + target, ex);
+        } finally {
+            deflater.end();
+        }
+
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to publish compressed segment " + target, ex);
+        }
+        return open(target, source.baseSequence(), source.dictionary(), null);
+    }
+
+    /**
+     * Opens a compressed segment. When {@code visitor} is non-null every record is
+     * visited in order, which also rebuilds the segment's dictionary scope.
+     */
+    static CompressedSegment open(Path path, long baseSequence, EventEnvelopeCodec.Dictionary dictionary,
+                                  RecordVisitor visitor) {
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                CompressedSegment segment = new CompressedSegment(path, baseSequence, dictionary, channel, mapped);
+                if (visitor != null) {
+                    segment.scan(baseSequence, segment.lastSequence(), visitor);
+                }
+                return segment;
+            } catch (RuntimeException ex) {
+                channel.close();
+                throw ex;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to open compressed segment " + path, ex);
+        }
+    }
+
+    @Override
+    public byte[] read(long sequence) {
+        if (sequence < baseSequence || sequence > lastSequence) {
+            throw new IllegalArgumentException("sequence " + sequence + " is not in segment " + path);
+        }
+        byte[] raw = inflate(blockOf(sequence));
+        int position = 0;
+        while (true) {
+            ByteBuffer record = ByteBuffer.wrap(raw, position, LogSegment.HEADER_BYTES);
+            int length = record.getInt();
+            int crc = record.getInt();
+            long recordSequence = record.getLong();
+            if (recordSequence == sequence) {
+                return body(raw, position, length, crc, recordSequence);
+            }
+            position += LogSegment.HEADER_BYTES + length;
+        }
+    }
+
+    @Override
+    public void scan(long fromInclusive, long toInclusive, RecordVisitor visitor) {
+        long from = Math.max(fromInclusive, baseSequence);
+        long last = Math.min(toInclusive, lastSequence);
+        if (from > last) {
+            return;
+        }
+        // Blocks starting past the upper bound are never inflated
+        for (int block = blockOf(from); block < blockFirstSequences.length && blockFirstSequences[block] <= last; block++) {
+            byte[] raw = inflate(block);
+            int position = 0;
+            while (position < raw.length) {
+                ByteBuffer record = ByteBuffer.wrap(raw, position, LogSegment.HEADER_BYTES);
+                int length = record.getInt();
+                int crc = record.getInt();
+                long recordSequence = record.getLong();
+                if (recordSequence > last) {
+                    return;
+                }
+                if (recordSequence >= from) {
+                    visitor.visit(this, recordSequence, body(raw, position, length, crc, recordSequence));
+                }
+                position += LogSegment.HEADER_BYTES + length;
+            }
+        }
+    }
+
+    @Override
+    public long baseSequence() {
+        return baseSequence;
+    }
+
+    @Override
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public EventEnvelopeCodec.Dictionary dictionary() {
+        return dictionary;
+    }
+
+    /** Number of blocks inflated so far (cache hits excluded). */
+    long inflatedBlocks() {
+        return inflatedBlocks.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int blockOf(long sequence) {
+        int low = 0;
+        int high = blockFirstSequences.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (blockFirstSequences[mid] <= sequence) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /** Copies a record's body out of an inflated block, checking it like {@link LogSegment} recovery does. */
+    private byte[] body(byte[] raw, int position, int length, int crc, long sequence) {
+        int start = position + LogSegment.HEADER_BYTES;
+        if (length < 0 || length > raw.length - start) {
+            throw new IllegalStateException("record " + sequence + " overruns its block in " + path);
+        }
+        byte[] body = Arrays.copyOfRange(raw, start, start + length);
+        if (LogSegment.crc32(body) != crc) {
+            throw new IllegalStateException("record " + sequence + " fails its CRC check in " + path);
+        }
+        return body;
+    }
+
+    private long lastSequenceOf(int block) {
+        byte[] raw = inflate(block);
+        int position = 0;
+        long last = blockFirstSequences[block];
+        while (position < raw.length) {
+            ByteBuffer record = ByteBuffer.wrap(raw, position, LogSegment.HEADER_BYTES);
+            int length = record.getInt();
+            record.getInt();
+            last = record.getLong();
+            position += LogSegment.HEADER_BYTES + length;
+        }
+        return last;
+    }
+
+    private byte[] inflate(int block) {
+        Block cached = lastBlock;
+        if (cached != null && cached.index() == block) {
+            return cached.raw();
+        }
+        byte[] compressed = new byte[blockCompressedLengths[block]];
+        mapped.get((int) blockOffsets[block], compressed);
+        byte[] raw = new byte[blockRawLengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int inflated = 0;
+            while (inflated < raw.length && !inflater.finished()) {
+                int n = inflater.inflate(raw, inflated, raw.length - inflated);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += n;
+            }
+            if (inflated != raw.length) {
+                throw new IllegalStateException("block " + block + " in " + path + " inflated to "
+                    + inflated + " of " + raw.length + " bytes");
+            }
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("corrupt block " + block + " in " + path, ex);
+        } finally {
+            inflater.end();
+        }
+        inflatedBlocks.increment();
+        lastBlock = new Block(block, raw);
+        return raw;
+    }
+
+    private static int writeBlock(FileChannel out, Deflater deflater, ByteArrayOutputStream raw,
+                                  long firstSequence, long offset, ByteArrayOutputStream index) throws IOException {
+        byte[] input = raw.toByteArray();
+        raw.reset();
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(input.length / 2 + 64);
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(chunk);
+            compressed.write(chunk, 0, n);
+        }
+        byte[] bytes = compressed.toByteArray();
+        writeFully(out, ByteBuffer.wrap(bytes));
+
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+        entry.putLong(firstSequence).putLong(offset).putInt(bytes.length).putInt(input.length);
+        index.writeBytes(entry.array());
+        return bytes.length;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.factbus.bus;
+
+/**
+ * When an append to a durable store is acknowledged relative to fsync.
+ */
+public enum DurabilityMode {
+    /** Force the segment after every append; simplest, bounded by flush latency. */
+    PER_EVENT,
+    /** Batch concurrent appends and acknowledge each after one shared force. */
+    GROUPED,
+    /** Acknowledge after the write reaches the page cache; force in the background. */
+    ASYNC
+}
@@ -0,0 +1,40 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.EventEnvelopeCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Self-contained {@link EventEnvelopeCodec} records of appended events, encoded once
+ * and shared by every binary stream; the binary counterpart of {@link EventJsonCache}.
+ * {@code factbus.events.binary.encoded} counts actual encodings.
+ */
+public final class EventBinaryCache {
+
+    private final EventEnvelopeCodec codec = new EventEnvelopeCodec();
+    private final SequenceRing ring;
+    private final Counter encoded;
+
+    /** @param capacity events kept, rounded up to a power of two */
+    public EventBinaryCache(int capacity, MeterRegistry meterRegistry) {
+        this.ring = new SequenceRing(capacity);
+        this.encoded = Counter.builder("factbus.events.binary.encoded")
+            .description("Events encoded to the binary record format; cache hits are not counted")
+            .register(meterRegistry);
+    }
+
+    /** The event's codec record; callers must not modify the returned array. */
+    public byte[] bytes(EventEnvelope event) {
+        Long sequence = event.getSequenceNumber();
+        byte[] record = sequence == null ? null : ring.get(sequence);
+        if (record == null) {
+            record = codec.encode(event);
+            encoded.increment();
+            if (sequence != null) {
+                ring.put(sequence, record);
+            }
+        }
+        return record;
+    }
+}
@@ -1,82 +1,258 @@
 package com.factbus.bus;
 
 import com.factbus.api.DuplicateEventException;
-import com.factbus.arbitration.ArbitrationService;
+import com.factbus.api.OverloadedException;
+import com.factbus.contract.ContractViolationException;
 import com.factbus.contract.EventCategory;
 import com.factbus.contract.EventContractValidator;
 import com.factbus.contract.EventEnvelope;
-import com.factbus.fdr.FactDerivationReactor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 @Service
-public class EventBusService {
+public class EventBusService implements Closeable {
 
     private static final Logger log = LoggerFactory.getLogger(EventBusService.class);
 
     private final EventContractValidator validator;
     private final EventStore eventStore;
-    private final FactDerivationReactor fdr;
-    private final ArbitrationService arbitrationService;
-    private final ConcurrentHashMap<String, Consumer<EventEnvelope>> subscribers = new ConcurrentHashMap<>();
+    private final SubscriberRegistry subscribers;
+    private final ChangeNotifier changes = new ChangeNotifier();
+    private final EventJsonCache jsonCache;
+    private final ReactorPipeline reactions;
+    private final PublishSequencer sequencer;
+    // Direct-mode ack=none appends; bounded like the sequencer ring
+    private final ThreadPoolExecutor deferredAppends;
+    private final int batchLimit;
 
+    /**
+     * @param reactors every registered {@link EventReactor} (arbitration, FDR, ...); the
+     *                 subscriber fan-out is added as the last stage, named "fanout"
+     * @param jsonCache warmed by the fan-out, so subscribers writing JSON share one encoding
+     * @param threadMode platform or virtual threads for delivery, reactor stages and deferred publishes
+     */
     public EventBusService(EventContractValidator validator,
                            EventStore eventStore,
-                           FactDerivationReactor fdr,
-                           ArbitrationService arbitrationService) {
+                           List<EventReactor> reactors,
+                           PublishProperties publishProperties,
+                           ReactorProperties reactorProperties,
+                           SubscriptionProperties subscriptionProperties,
+                           EventJsonCache jsonCache,
+                           ThreadMode threadMode,
+                           MeterRegistry meterRegistry) {
         this.validator = validator;
         this.eventStore = eventStore;
-        this.fdr = fdr;
-        this.arbitrationService = arbitrationService;
+        this.jsonCache = jsonCache;
+        this.subscribers = new SubscriberRegistry(subscriptionProperties, eventStore, threadMode, meterRegistry);
+        List<EventReactor> stages = new ArrayList<>(reactors);
+        stages.add(new SubscriberFanout());
+        this.reactions = new ReactorPipeline(stages, reactorProperties, validator, eventStore, threadMode);
+        this.sequencer = publishProperties.mode() == PublishMode.SEQUENCER
+            ? new PublishSequencer(publishProperties.ringSize(), publishProperties.maxBatch(), eventStore,
+                reactions::submit)
+            : null;
+        if (sequencer != null && publishProperties.batchLimit() > sequencer.capacity()) {
+            throw new IllegalArgumentException("publish batch-limit " + publishProperties.batchLimit()
+                + " exceeds the sequencer ring of " + sequencer.capacity() + " slots");
+        }
+        this.deferredAppends = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(publishProperties.ringSize()), threadMode.factory("factbus-deferred-publish-"));
+        this.batchLimit = publishProperties.batchLimit();
     }
 
+    /** Publishes and waits for the reactions ({@link AckLevel#REACTED}). */
     public EventEnvelope publish(EventEnvelope event) {
-        // Idempotency: reject duplicate event_id (Step 9)
+        return publish(event, AckLevel.REACTED);
+    }
+
+    /**
+     * Validates synchronously, then appends and reacts as far as {@code ack} requires
+     * before returning. With {@link AckLevel#NONE} the returned event may not have a
+     * sequence number yet; a duplicate that slips past the early check is only logged.
+     */
+    public EventEnvelope publish(EventEnvelope event, AckLevel ack) {
+        // Idempotency: reject duplicate event_id (Step 9). The early check only saves
+        // validating a known duplicate; appendIfAbsent is what makes it race-free.
         if (event.getEventId() != null && eventStore.existsByEventId(event.getEventId())) {
             throw new DuplicateEventException(event.getEventId());
         }
 
+        reactions.admit(event);
         validator.validate(event, eventStore);
-        EventEnvelope appended = eventStore.append(event);
-        notifySubscribers(appended);
-
-        // Arbitration: auto-arbitrate PROPOSAL_EVENTs (DESIGN.md §6)
-        if (appended.getEventCategory() == EventCategory.PROPOSAL_EVENT) {
-            List<EventEnvelope> subjectFacts = eventStore.query(
-                Optional.empty(),
-                Optional.of(EventCategory.FACT_EVENT),
-                appended.getSubject() != null ? Optional.of(appended.getSubject().getType()) : Optional.empty(),
-                appended.getSubject() != null ? Optional.of(appended.getSubject().getId()) : Optional.empty(),
-                1000
-            );
-            EventEnvelope decision = arbitrationService.arbitrate(appended, subjectFacts);
-            log.info("Arbitration produced DECISION_EVENT outcome={} for proposal={}",
-                decision.getPayload().get("outcome"), appended.getEventId());
-            validator.validate(decision, eventStore);
-            EventEnvelope appendedDecision = eventStore.append(decision);
-            notifySubscribers(appendedDecision);
-        }
-
-        // FDR: automatically derive FACT_EVENT from EXECUTION_EVENT (DESIGN.md §4.7.3)
-        if (appended.getEventCategory() == EventCategory.EXECUTION_EVENT) {
-            EventEnvelope derivedFact = fdr.tryDerive(appended);
-            if (derivedFact != null) {
-                log.info("FDR triggering derived FACT_EVENT for execution_event={}",
-                    appended.getEventId());
-                validator.validate(derivedFact, eventStore);
-                EventEnvelope appendedFact = eventStore.append(derivedFact);
-                notifySubscribers(appendedFact);
+        if (ack == AckLevel.NONE) {
+            publishDeferred(event);
+            return event;
+        }
+
+        PublishSequencer.Appended appended;
+        if (sequencer != null) {
+            appended = await(sequencer.submit(event));
+        } else {
+            EventEnvelope stored = eventStore.appendIfAbsent(event)
+                .orElseThrow(() -> new DuplicateEventException(event.getEventId()));
+            appended = new PublishSequencer.Appended(stored, reactions.submit(stored));
+        }
+        if (ack == AckLevel.REACTED) {
+            await(appended.reactions());
+        }
+        return appended.event();
+    }
+
+    private void publishDeferred(EventEnvelope event) {
+        CompletableFuture<?> done;
+        if (sequencer != null) {
+            done = sequencer.submit(event).thenCompose(PublishSequencer.Appended::reactions);
+        } else {
+            try {
+                done = CompletableFuture.supplyAsync(() -> eventStore.appendIfAbsent(event)
+                    .orElseThrow(() -> new DuplicateEventException(event.getEventId())), deferredAppends)
+                    .thenCompose(reactions::submit);
+            } catch (RejectedExecutionException ex) {
+                throw new OverloadedException("deferred publish queue is full, retry later");
+            }
+        }
+        done.whenComplete((ignored, ex) -> {
+            if (ex != null) {
+                log.warn("Unacknowledged publish of event={} failed: {}", event.getEventId(), ex.getMessage());
+            }
+        });
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Publishes a batch with one validation pass and one store call.
+     *
+     * - Every item is deduplicated against the rest of the batch and the store and
+     *   validated before anything is appended; validation sees the log as it was
+     *   before the batch, so items cannot reference each other
+     * - Atomic: any rejected item aborts the whole batch and nothing is appended
+     * - Best effort: rejected items are skipped and the rest is appended
+     * - Appended items get contiguous sequences in request order and are then reacted
+     *   to one by one, exactly as single publishes would be
+     *
+     * A concurrent publish of the same event_id that lands between the check and
+     * the append is still reported as that item's duplicate, even in an atomic batch.
+     * In {@link PublishMode#SEQUENCER} the batch is one ring group, appended in one
+     * store call with no other publish in between.
+     *
+     * @return one result per input event, in request order
+     */
+    public List<BatchItemResult> publishBatch(List<EventEnvelope> events, boolean atomic) {
+        if (events.isEmpty()) {
+            throw new IllegalArgumentException("batch must contain at least one event");
+        }
+        if (events.size() > batchLimit) {
+            throw new IllegalArgumentException("batch of " + events.size() + " events exceeds the limit of " + batchLimit);
+        }
+
+        BatchItemResult[] results = new BatchItemResult[events.size()];
+        List<EventEnvelope> candidates = new ArrayList<>(events.size());
+        List<Integer> positions = new ArrayList<>(events.size());
+        Set<String> batchIds = new HashSet<>();
+        for (int i = 0; i < events.size(); i++) {
+            EventEnvelope event = events.get(i);
+            try {
+                String eventId = event.getEventId();
+                if (eventId != null && (!batchIds.add(eventId) || eventStore.existsByEventId(eventId))) {
+                    throw new DuplicateEventException(eventId);
+                }
+                reactions.admit(event);
+                validator.validate(event, eventStore);
+                candidates.add(event);
+                positions.add(i);
+            } catch (ContractViolationException ex) {
+                results[i] = BatchItemResult.rejected(i, event, "CONTRACT_VIOLATION", ex.getMessage());
+            } catch (DuplicateEventException ex) {
+                results[i] = BatchItemResult.rejected(i, event, "DUPLICATE_EVENT", ex.getMessage());
+            }
+        }
+
+        if (atomic && candidates.size() < events.size()) {
+            for (int i = 0; i < candidates.size(); i++) {
+                results[positions.get(i)] = BatchItemResult.aborted(positions.get(i), candidates.get(i));
+            }
+            return List.of(results);
+        }
+        if (!candidates.isEmpty()) {
+            if (sequencer != null) {
+                publishBatchSequenced(candidates, positions, results);
+            } else {
+                publishBatchDirect(candidates, positions, results);
+            }
+        }
+        return List.of(results);
+    }
+
+    private void publishBatchDirect(List<EventEnvelope> candidates, List<Integer> positions,
+                                    BatchItemResult[] results) {
+        List<Optional<EventEnvelope>> appended = eventStore.appendAllIfAbsent(candidates);
+        List<CompletableFuture<Void>> reacted = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            reacted.add(appended.get(i).map(reactions::submit).orElse(null));
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            int index = positions.get(i);
+            EventEnvelope event = candidates.get(i);
+            if (reacted.get(i) == null) {
+                results[index] = BatchItemResult.rejected(index, event, "DUPLICATE_EVENT",
+                    new DuplicateEventException(event.getEventId()).getMessage());
+            } else {
+                results[index] = awaitReactions(index, event, reacted.get(i));
             }
         }
+    }
 
-        return appended;
+    private BatchItemResult awaitReactions(int index, EventEnvelope event, CompletableFuture<Void> reacted) {
+        try {
+            reacted.join();
+            return BatchItemResult.accepted(index, event);
+        } catch (CompletionException ex) {
+            log.warn("Reactions failed for batch item event={}: {}", event.getEventId(), ex.getCause().getMessage());
+            return BatchItemResult.failed(index, event, ex.getCause().getMessage());
+        }
+    }
+
+    private void publishBatchSequenced(List<EventEnvelope> candidates, List<Integer> positions,
+                                       BatchItemResult[] results) {
+        List<CompletableFuture<PublishSequencer.Appended>> futures = sequencer.submitAll(candidates);
+        for (int i = 0; i < candidates.size(); i++) {
+            int index = positions.get(i);
+            EventEnvelope event = candidates.get(i);
+            PublishSequencer.Appended appended;
+            try {
+                appended = await(futures.get(i));
+            } catch (DuplicateEventException ex) {
+                results[index] = BatchItemResult.rejected(index, event, "DUPLICATE_EVENT", ex.getMessage());
+                continue;
+            }
+            results[index] = awaitReactions(index, appended.event(), appended.reactions());
+        }
     }
 
     public List<EventEnvelope> query(Optional<String> traceId,
@@ -87,28 +263,102 @@ public class EventBusService {
         return eventStore.query(traceId, eventCategory, subjectType, subjectId, limit);
     }
 
+    /** One page of matches after the {@code afterSequence} cursor, see {@link EventStore#query}. */
+    public List<EventEnvelope> query(Optional<String> traceId,
+                                    Optional<EventCategory> eventCategory,
+                                    Optional<String> subjectType,
+                                    Optional<String> subjectId,
+                                    long afterSequence,
+                                    int limit) {
+        return eventStore.query(traceId, eventCategory, subjectType, subjectId, afterSequence, limit);
+    }
+
     public long latestSequence() {
         return eventStore.getLatestSequence();
     }
 
+    /**
+     * Registers a subscriber with its own bounded delivery queue; events arrive on a
+     * dedicated delivery thread, in sequence order.
+     */
     public String subscribe(Consumer<EventEnvelope> consumer) {
-        String id = UUID.randomUUID().toString();
-        subscribers.put(id, consumer);
-        return id;
+        return subscribe(SubscriptionFilter.ALL, 0, consumer, () -> { });
+    }
+
+    /**
+     * @param filter       events to deliver, matched through the routing index rather
+     *                     than by the consumer
+     * @param fromSequence first sequence to deliver: the backlog from there on is
+     *                     replayed before live events, without gaps or duplicates;
+     *                     0 for live events only
+     * @param onDisconnect run if the bus drops the subscription, see {@link SlowConsumerPolicy#DISCONNECT}
+     */
+    public String subscribe(SubscriptionFilter filter, long fromSequence, Consumer<EventEnvelope> consumer,
+                            Runnable onDisconnect) {
+        return subscribers.subscribe(filter, fromSequence, consumer, onDisconnect);
     }
 
     public void unsubscribe(String id) {
-        subscribers.remove(id);
+        subscribers.unsubscribe(id);
     }
 
-    private void notifySubscribers(EventEnvelope event) {
-        subscribers.values().forEach(consumer -> {
-            try {
-                consumer.accept(event);
-            } catch (Exception ex) {
-                log.warn("Subscriber notification failed for event={}: {}",
-                    event.getEventId(), ex.getMessage());
+    /**
+     * Runs {@code onChange} once, when the next event matching {@code filter} has been
+     * appended and fanned out. Holds no thread while waiting. The callback runs on the
+     * fan-out stage and must not block; events appended before registration do not
+     * trigger it, so callers re-read the store after registering.
+     *
+     * @return id for {@link #cancelChange}
+     */
+    public String awaitChange(SubscriptionFilter filter, Runnable onChange) {
+        return changes.register(filter, onChange);
+    }
+
+    public void cancelChange(String id) {
+        changes.cancel(id);
+    }
+
+    @Override
+    public void close() {
+        if (sequencer != null) {
+            sequencer.close();
+        }
+        deferredAppends.shutdown();
+        try {
+            deferredAppends.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        reactions.close();
+        subscribers.close();
+    }
+
+    /**
+     * Hands every appended event, including derived ones, to the subscribers' queues.
+     * Encodes it first when anyone may receive it, so concurrent subscriber threads
+     * find the bytes cached instead of each serializing the event. Then wakes any
+     * {@link #awaitChange} waiters it matches.
+     */
+    private final class SubscriberFanout implements EventReactor {
+
+        @Override
+        public String name() {
+            return "fanout";
+        }
+
+        @Override
+        public boolean handles(EventEnvelope event) {
+            return true;
+        }
+
+        @Override
+        public List<EventEnvelope> react(EventEnvelope event, EventStore eventStore) {
+            if (subscribers.candidates(event) > 0) {
+                jsonCache.bytes(event);
             }
-        });
+            subscribers.deliver(event);
+            changes.notify(event);
+            return List.of();
+        }
     }
 }
@@ -0,0 +1,151 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Secondary indexes over the event log, maintained on append.
+ *
+ * - event_id -> sequence_number (dedup, based_on_events checks, point lookups)
+ * - trace_id -> posting list
+ * - (subject.type, subject.id) -> posting list
+ * - event_category -> posting list
+ *
+ * Posting lists hold sequence numbers in ascending order, so a query can walk the
+ * most selective list and test the remaining filters on each candidate.
+ * {@link #add} must be called by one writer at a time, in sequence order.
+ *
+ * For parallel recovery, independent partial indexes can be built per segment
+ * and folded in with {@link #merge}, again in sequence order.
+ */
+final class EventIndex {
+
+    private static final SequencePostingList EMPTY = new SequencePostingList();
+    // event_id reserved by claim() but not yet indexed; sequences start at 1
+    private static final long CLAIMED = 0L;
+
+    private final ConcurrentHashMap<String, Long> byEventId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, SequencePostingList> byTrace = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, SequencePostingList> bySubject = new ConcurrentHashMap<>();
+    private final Map<EventCategory, SequencePostingList> byCategory = new EnumMap<>(EventCategory.class);
+
+    EventIndex() {
+        // Pre-populated so readers never observe a structural change of the EnumMap
+        for (EventCategory category : EventCategory.values()) {
+            byCategory.put(category, new SequencePostingList());
+        }
+    }
+
+    void add(EventEnvelope event, long sequence) {
+        if (event.getEventId() != null) {
+            // First indexed sequence wins; a claim is replaced by the claimant's sequence
+            byEventId.merge(event.getEventId(), sequence,
+                (existing, added) -> existing == CLAIMED ? added : existing);
+        }
+        if (event.getTraceId() != null) {
+            byTrace.computeIfAbsent(event.getTraceId(), k -> new SequencePostingList()).add(sequence);
+        }
+        if (event.getSubject() != null && event.getSubject().getType() != null
+                && event.getSubject().getId() != null) {
+            bySubject.computeIfAbsent(subjectKey(event.getSubject().getType(), event.getSubject().getId()),
+                k -> new SequencePostingList()).add(sequence);
+        }
+        if (event.getEventCategory() != null) {
+            byCategory.get(event.getEventCategory()).add(sequence);
+        }
+    }
+
+    /**
+     * Folds a partial index covering sequences strictly after everything already
+     * indexed here (e.g. the next segment during recovery).
+     */
+    void merge(EventIndex later) {
+        later.byEventId.forEach(byEventId::putIfAbsent);
+        later.byTrace.forEach((trace, list) -> mergeInto(byTrace, trace, list));
+        later.bySubject.forEach((subject, list) -> mergeInto(bySubject, subject, list));
+        later.byCategory.forEach((category, list) -> byCategory.get(category).addAll(list));
+    }
+
+    private static void mergeInto(ConcurrentHashMap<String, SequencePostingList> target,
+                                  String key, SequencePostingList list) {
+        SequencePostingList existing = target.putIfAbsent(key, list);
+        if (existing != null) {
+            existing.addAll(list);
+        }
+    }
+
+    /**
+     * Atomically reserves an event_id ahead of {@link #add}; safe to call from any
+     * number of threads.
+     *
+     * @return false if the event_id is already indexed or claimed
+     */
+    boolean claim(String eventId) {
+        return byEventId.putIfAbsent(eventId, CLAIMED) == null;
+    }
+
+    /** Drops a {@link #claim} whose event was never indexed; indexed event_ids are kept. */
+    void release(String eventId) {
+        byEventId.remove(eventId, CLAIMED);
+    }
+
+    /** Sequence of an indexed event_id; {@code null} if unknown or only claimed. */
+    Long sequenceOf(String eventId) {
+        Long sequence = eventId == null ? null : byEventId.get(eventId);
+        return sequence == null || sequence == CLAIMED ? null : sequence;
+    }
+
+    /**
+     * Picks the smallest posting list among the filters that have an index.
+     *
+     * @return the candidate list, an empty list when an indexed key has never been seen,
+     *         or {@code null} when no filter is indexed and the caller must scan
+     */
+    SequencePostingList mostSelective(Optional<String> traceId,
+                                      Optional<EventCategory> eventCategory,
+                                      Optional<String> subjectType,
+                                      Optional<String> subjectId) {
+        SequencePostingList best = null;
+        if (traceId.isPresent()) {
+            best = smaller(best, byTrace.get(traceId.get()));
+        }
+        if (subjectType.isPresent() && subjectId.isPresent()) {
+            best = smaller(best, bySubject.get(subjectKey(subjectType.get(), subjectId.get())));
+        }
+        if (eventCategory.isPresent()) {
+            best = smaller(best, byCategory.get(eventCategory.get()));
+        }
+        return best;
+    }
+
+    private SequencePostingList smaller(SequencePostingList current, SequencePostingList candidate) {
+        if (candidate == null) {
+            return EMPTY;
+        }
+        if (current == null || candidate.size() < current.size()) {
+            return candidate;
+        }
+        return current;
+    }
+
+    /** Full filter check, used to intersect a posting list with the remaining filters. */
+    static boolean matches(EventEnvelope e,
+                           Optional<String> traceId,
+                           Optional<EventCategory> eventCategory,
+                           Optional<String> subjectType,
+                           Optional<String> subjectId) {
+        return traceId.map(t -> t.equals(e.getTraceId())).orElse(true)
+            && eventCategory.map(c -> c == e.getEventCategory()).orElse(true)
+            && subjectType.map(s -> e.getSubject() != null && s.equals(e.getSubject().getType())).orElse(true)
+            && subjectId.map(s -> e.getSubject() != null && s.equals(e.getSubject().getId())).orElse(true);
+    }
+
+    static String subjectKey(String subjectType, String subjectId) {
+        return subjectType + '\u0000' + subjectId;
+    }
+}
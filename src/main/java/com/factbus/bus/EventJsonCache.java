@@ -0,0 +1,93 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventEnvelope;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * JSON encoding of appended events, computed once and shared by every subscriber
+ * and read path. An appended envelope never changes, so its bytes stay valid.
+ *
+ * - Entries live in a {@link SequenceRing}: a newer event evicts the one exactly
+ *   {@code capacity} sequences older, so the recent tail the streams serve stays hot
+ * - Events without a sequence number (not yet appended) are encoded but not cached
+ * - {@code factbus.events.json.encoded} counts Jackson encodings; with fan-out it
+ *   tracks the append rate, not the subscriber count
+ */
+public final class EventJsonCache {
+
+    private final ObjectMapper objectMapper;
+    private final SequenceRing ring;
+    private final Counter encoded;
+
+    /** @param capacity events kept, rounded up to a power of two */
+    public EventJsonCache(ObjectMapper objectMapper, int capacity, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.ring = new SequenceRing(capacity);
+        this.encoded = Counter.builder("factbus.events.json.encoded")
+            .description("Events serialized to JSON; cache hits are not counted")
+            .register(meterRegistry);
+    }
+
+    /** The event's JSON; callers must not modify the returned array. */
+    public byte[] bytes(EventEnvelope event) {
+        Long sequence = event.getSequenceNumber();
+        if (sequence == null) {
+            return encode(event);
+        }
+        byte[] json = ring.get(sequence);
+        if (json == null) {
+            json = encode(event);
+            ring.put(sequence, json);
+        }
+        return json;
+    }
+
+    /**
+     * Like {@link #bytes} but a miss is not cached: bulk reads of old history would
+     * otherwise evict the recent tail the streams depend on.
+     */
+    public byte[] bytesUncached(EventEnvelope event) {
+        byte[] json = event.getSequenceNumber() == null ? null : ring.get(event.getSequenceNumber());
+        return json != null ? json : encode(event);
+    }
+
+    /** A JSON array of the events, assembled from their cached bytes. */
+    public byte[] array(List<EventEnvelope> events) {
+        return array(events, true);
+    }
+
+    /** Like {@link #array} but misses are not cached; for reads that are not of the tail. */
+    public byte[] arrayUncached(List<EventEnvelope> events) {
+        return array(events, false);
+    }
+
+    private byte[] array(List<EventEnvelope> events, boolean cacheMisses) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        for (int i = 0; i < events.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(cacheMisses ? bytes(events.get(i)) : bytesUncached(events.get(i)));
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private byte[] encode(EventEnvelope event) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(event);
+            encoded.increment();
+            return json;
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException("Failed to serialize event " + event.getEventId(), ex);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventEnvelope;
+
+import java.util.List;
+
+/**
+ * A bus-internal reaction to appended events, run as its own stage of the
+ * {@link ReactorPipeline}: its own bounded queue, workers and batching window
+ * ({@code factbus.reactors.*}, keyed by {@link #name()}).
+ *
+ * Every {@code EventReactor} bean is registered automatically.
+ */
+public interface EventReactor {
+
+    /** Stage name, used for configuration, thread names and logs. */
+    String name();
+
+    /** Cheap category/type check; only matching events are queued for this stage. */
+    boolean handles(EventEnvelope event);
+
+    /**
+     * Reacts to one appended event.
+     *
+     * @return events to append as a consequence (validated and appended by the
+     *         pipeline, then reacted to in turn); empty if there is nothing to emit
+     */
+    List<EventEnvelope> react(EventEnvelope event, EventStore eventStore);
+}
@@ -3,20 +3,67 @@ package com.factbus.bus;
 import com.factbus.contract.EventCategory;
 import com.factbus.contract.EventEnvelope;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 public interface EventStore {
     EventEnvelope append(EventEnvelope event);
 
+    /**
+     * Appends unless an event with the same event_id is already stored (or being
+     * stored). The duplicate check and sequence assignment are one atomic step, so
+     * concurrent publishers of the same event_id get exactly one append.
+     *
+     * @return the appended event, or empty if the event_id was already taken
+     */
+    Optional<EventEnvelope> appendIfAbsent(EventEnvelope event);
+
+    /**
+     * {@link #appendIfAbsent} for each event, in order. Stores may amortize locking
+     * and durability over the batch; sequences are assigned in list order. The
+     * memory, off-heap, partitioned and file stores also keep the appended events
+     * contiguous in the log; this default does not.
+     *
+     * @return one entry per input event: the appended event, or empty for a duplicate
+     */
+    default List<Optional<EventEnvelope>> appendAllIfAbsent(List<EventEnvelope> events) {
+        List<Optional<EventEnvelope>> result = new ArrayList<>(events.size());
+        for (EventEnvelope event : events) {
+            result.add(appendIfAbsent(event));
+        }
+        return result;
+    }
+
+    /** The first {@code limit} matching events in sequence order. */
+    default List<EventEnvelope> query(Optional<String> traceId,
+                                      Optional<EventCategory> eventCategory,
+                                      Optional<String> subjectType,
+                                      Optional<String> subjectId,
+                                      int limit) {
+        return query(traceId, eventCategory, subjectType, subjectId, 0, limit);
+    }
+
+    /**
+     * Matching events with sequence greater than {@code afterSequence}, in sequence
+     * order. Passing the last sequence of one page as the next page's cursor walks
+     * the whole history; stores seek to the cursor rather than skipping matches.
+     */
     List<EventEnvelope> query(Optional<String> traceId,
                              Optional<EventCategory> eventCategory,
                              Optional<String> subjectType,
                              Optional<String> subjectId,
+                             long afterSequence,
                              int limit);
 
     boolean existsByEventId(String eventId);
 
+    /**
+     * Point lookup by event_id. Implementations are expected to answer from an
+     * index rather than scanning the log.
+     */
+    Optional<EventEnvelope> findByEventId(String eventId);
+
     long getLatestSequence();
 
     List<EventEnvelope> queryBySequenceRange(long fromInclusive, long toInclusive, int limit);
@@ -0,0 +1,78 @@
+package com.factbus.bus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+@EnableConfigurationProperties({EventStoreProperties.class, PublishProperties.class,
+    ReactorProperties.class, SubscriptionProperties.class})
+public class EventStoreConfiguration {
+
+    /**
+     * Default heap-only store; the log is lost on restart.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "factbus.store.type", havingValue = "memory", matchIfMissing = true)
+    public EventStore inMemoryEventStore() {
+        return new InMemoryEventStore();
+    }
+
+    /**
+     * Heap-light store; serialized envelopes live in direct-memory arenas. The log is lost on restart.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "factbus.store.type", havingValue = "off-heap")
+    public EventStore offHeapEventStore(EventStoreProperties properties) {
+        return new OffHeapEventStore(Math.toIntExact(properties.offHeap().arenaSize().toBytes()));
+    }
+
+    /**
+     * Heap-only store split into subject partitions so ingest scales with cores. The log is lost on restart.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "factbus.store.type", havingValue = "partitioned")
+    public EventStore partitionedEventStore(EventStoreProperties properties) {
+        int partitions = properties.partitioned().partitions();
+        return new PartitionedEventStore(partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Durable segmented store; recovers the log and rebuilds indexes on startup.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "factbus.store.type", havingValue = "file")
+    public EventStore fileEventStore(EventStoreProperties properties, MeterRegistry meterRegistry) {
+        return new FileEventStore(properties.file(), meterRegistry);
+    }
+
+    /**
+     * Virtual threads for the bus's own workers when {@code spring.threads.virtual.enabled}
+     * is set, so one switch covers requests and delivery.
+     */
+    @Bean
+    public ThreadMode threadMode(Environment environment) {
+        return Threading.VIRTUAL.isActive(environment) ? ThreadMode.VIRTUAL : ThreadMode.PLATFORM;
+    }
+
+    /**
+     * Shared JSON encoding of appended events, using the web layer's ObjectMapper so
+     * cached bytes match what the controllers would have serialized.
+     */
+    @Bean
+    public EventJsonCache eventJsonCache(ObjectMapper objectMapper, SubscriptionProperties properties,
+                                         MeterRegistry meterRegistry) {
+        return new EventJsonCache(objectMapper, properties.jsonCacheSize(), meterRegistry);
+    }
+
+    /** Shared binary encoding of appended events for the WebSocket stream; sized like the JSON cache. */
+    @Bean
+    public EventBinaryCache eventBinaryCache(SubscriptionProperties properties, MeterRegistry meterRegistry) {
+        return new EventBinaryCache(properties.jsonCacheSize(), meterRegistry);
+    }
+}
@@ -0,0 +1,83 @@
+package com.factbus.bus;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Event store settings ({@code factbus.store.*}).
+ *
+ * {@code factbus.store.type} selects the implementation: {@code memory} (default),
+ * {@code off-heap}, {@code partitioned} or {@code file}.
+ */
+@ConfigurationProperties(prefix = "factbus.store")
+public record EventStoreProperties(
+    @DefaultValue("memory") String type,
+    @DefaultValue File file,
+    @DefaultValue OffHeap offHeap,
+    @DefaultValue Partitioned partitioned
+) {
+
+    /**
+     * Settings for {@link FileEventStore}.
+     *
+     * @param directory     where segment files are kept
+     * @param segmentSize   roll to a new segment once the active one would exceed this size
+     * @param indexInterval keep a sparse-index entry for every N-th record of a segment
+     * @param durability    fsync / acknowledgement policy
+     * @param compression   background compression of sealed segments
+     * @param recoveryParallelism threads used to recover and re-index segments on startup
+     *                      (0 = available processors)
+     */
+    public record File(
+        @DefaultValue("data/events") Path directory,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("64") int indexInterval,
+        @DefaultValue Durability durability,
+        @DefaultValue Compression compression,
+        @DefaultValue("0") int recoveryParallelism
+    ) {}
+
+    /**
+     * @param mode          per-event, grouped or async (see {@link DurabilityMode})
+     * @param commitWindow  how long a group commit (or async flush) waits for more appends
+     * @param maxBatchSize  force early once this many bytes are pending
+     */
+    public record Durability(
+        @DefaultValue("grouped") DurabilityMode mode,
+        @DefaultValue("2ms") Duration commitWindow,
+        @DefaultValue("1MB") DataSize maxBatchSize
+    ) {}
+
+    /**
+     * @param enabled   compress segments once they are sealed; the active segment never is
+     * @param blockSize uncompressed bytes per independently inflatable block (random-read granularity)
+     * @param level     {@link java.util.zip.Deflater} level, 1 (fast) .. 9 (small)
+     */
+    public record Compression(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("64KB") DataSize blockSize,
+        @DefaultValue("6") int level
+    ) {}
+
+    /**
+     * Settings for {@link OffHeapEventStore}.
+     *
+     * @param arenaSize size of each direct-memory arena; also the largest encoded event accepted
+     */
+    public record OffHeap(
+        @DefaultValue("64MB") DataSize arenaSize
+    ) {}
+
+    /**
+     * Settings for {@link PartitionedEventStore}.
+     *
+     * @param partitions number of subject partitions (0 = available processors)
+     */
+    public record Partitioned(
+        @DefaultValue("0") int partitions
+    ) {}
+}
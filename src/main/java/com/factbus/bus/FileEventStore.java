@@ -0,0 +1,598 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.EventEnvelopeCodec;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+/**
+ * Durable {@link EventStore} backed by rolling segment files.
+ *
+ * - Events are stored as {@link EventEnvelopeCodec} binary records
+ * - Each segment is named after the first sequence number it holds and is rolled
+ *   once it would exceed the configured segment size
+ * - Appends are serialized and written through the file channel; when they are
+ *   forced and acknowledged is decided by the {@link DurabilityMode} (see
+ *   {@link GroupCommitter})
+ * - An append is published to readers (latest sequence, indexes) only once it is
+ *   durable under that mode, in sequence order; if a write cannot be committed the
+ *   store fails and rejects further appends until it is reopened
+ * - Reads go through memory-mapped segment views plus a sparse per-segment
+ *   sequence -> offset index
+ * - On open, segments are recovered and re-indexed in parallel
+ * - Sealed segments are compressed in the background into block-indexed
+ *   {@link CompressedSegment}s; the active (hot) segment stays uncompressed
+ * - Secondary indexes (event_id, trace, subject, category) live on-heap and are
+ *   rebuilt from the segments on open
+ *
+ * Selected with {@code factbus.store.type=file}.
+ */
+public class FileEventStore implements EventStore, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(FileEventStore.class);
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int indexInterval;
+    private final EventStoreProperties.Compression compression;
+    private final EventEnvelopeCodec codec = new EventEnvelopeCodec();
+    private final EventIndex index = new EventIndex();
+    private final GroupCommitter committer;
+    private final ExecutorService compactor;
+    // A lock rather than a monitor: appends write to the channel while holding it, which
+    // would pin a virtual-thread publisher to its carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    // Replaced (never mutated) on roll or compaction, so readers can use a snapshot.
+    // The last element is always the active segment.
+    private volatile List<Segment> segments;
+    private volatile LogSegment active;
+    // Last sequence written to the active segment; guarded by the write lock
+    private long writtenSequence;
+    // Last sequence that is durable and indexed; what readers see
+    private volatile long latestSequence;
+    private volatile RuntimeException failure;
+    private volatile boolean closed;
+
+    /** Per-event durability, no compression; mostly for tests and tools. */
+    public FileEventStore(Path directory, long segmentBytes, int indexInterval) {
+        this(new EventStoreProperties.File(
+            directory,
+            DataSize.ofBytes(segmentBytes),
+            indexInterval,
+            new EventStoreProperties.Durability(DurabilityMode.PER_EVENT, Duration.ZERO,
+                DataSize.ofBytes(0)),
+            new EventStoreProperties.Compression(false,
+                DataSize.ofKilobytes(64), Deflater.DEFAULT_COMPRESSION),
+            0
+        ), new SimpleMeterRegistry());
+    }
+
+    public FileEventStore(EventStoreProperties.File settings, MeterRegistry meterRegistry) {
+        long segmentBytes = settings.segmentSize().toBytes();
+        if (segmentBytes <= LogSegment.HEADER_BYTES || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segment size must be between 16 bytes and 2 GiB");
+        }
+        if (settings.indexInterval() < 1) {
+            throw new IllegalArgumentException("index interval must be >= 1");
+        }
+        this.directory = settings.directory();
+        this.segmentBytes = segmentBytes;
+        this.indexInterval = settings.indexInterval();
+        this.compression = settings.compression();
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "factbus-segment-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        openSegments(settings.recoveryParallelism(), meterRegistry);
+        this.committer = new GroupCommitter(
+            settings.durability().mode(),
+            settings.durability().commitWindow(),
+            settings.durability().maxBatchSize().toBytes(),
+            () -> active.force(),
+            meterRegistry);
+        log.info("Opened file event store at {} with {} segment(s), latest sequence={}, durability={}, compression={}",
+            directory, segments.size(), latestSequence, settings.durability().mode(), compression.enabled());
+    }
+
+    private void openSegments(int parallelism, MeterRegistry meterRegistry) {
+        TreeMap<Long, Path> plain = new TreeMap<>();
+        TreeMap<Long, Path> compressed = new TreeMap<>();
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> listing = Files.list(directory)) {
+                for (Path file : listing.toList()) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(SEGMENT_SUFFIX)) {
+                        plain.put(baseSequenceOf(file), file);
+                    } else if (name.endsWith(CompressedSegment.SUFFIX)) {
+                        compressed.put(baseSequenceOf(file), file);
+                    } else if (name.endsWith(".tmp")) {
+                        // Leftover of an interrupted compaction; the plain segment is still intact
+                        Files.delete(file);
+                    }
+                }
+            }
+            for (Long base : compressed.keySet()) {
+                // The compressed copy is only published once complete, so the plain one is redundant
+                Path redundant = plain.remove(base);
+                if (redundant != null) {
+                    Files.delete(redundant);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to list segments in " + directory, ex);
+        }
+
+        TreeMap<Long, Path> files = new TreeMap<>(plain);
+        files.putAll(compressed);
+        List<Segment> opened = recoverInParallel(files, compressed, parallelism, meterRegistry);
+        long expected = opened.isEmpty() ? 1 : opened.get(opened.size() - 1).lastSequence() + 1;
+
+        if (!opened.isEmpty() && opened.get(opened.size() - 1) instanceof LogSegment last) {
+            active = last;
+        } else {
+            active = LogSegment.open(segmentPath(expected), expected, indexInterval, (seg, seq, body) -> { });
+            opened.add(active);
+        }
+        latestSequence = expected - 1;
+        writtenSequence = latestSequence;
+        segments = List.copyOf(opened);
+
+        for (Segment segment : opened) {
+            if (segment instanceof LogSegment sealed && sealed != active) {
+                scheduleCompression(sealed);
+            }
+        }
+    }
+
+    /**
+     * Opens (and validates) every segment on a fork-join pool. Segments have their own
+     * dictionary scope, so each task decodes independently into a partial index; the
+     * partial indexes are then merged in sequence order.
+     */
+    private List<Segment> recoverInParallel(TreeMap<Long, Path> files, TreeMap<Long, Path> compressed,
+                                            int parallelism, MeterRegistry meterRegistry) {
+        AtomicLong recoveredSegments = new AtomicLong();
+        AtomicLong recoveredEvents = new AtomicLong();
+        int total = files.size();
+        Gauge.builder("factbus.store.recovery.progress", recoveredSegments,
+                done -> total == 0 ? 1.0 : (double) done.get() / total)
+            .description("Fraction of segments recovered during startup")
+            .strongReference(true)
+            .register(meterRegistry);
+        Gauge.builder("factbus.store.recovery.events", recoveredEvents, AtomicLong::get)
+            .description("Events re-indexed during startup recovery")
+            .strongReference(true)
+            .register(meterRegistry);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        List<ForkJoinTask<RecoveredSegment>> tasks = new ArrayList<>(total);
+        List<Segment> opened = new ArrayList<>(total);
+        long started = System.nanoTime();
+        try {
+            for (var file : files.entrySet()) {
+                long base = file.getKey();
+                boolean isCompressed = compressed.containsKey(base);
+                tasks.add(pool.submit(() -> {
+                    EventIndex partial = new EventIndex();
+                    Segment.RecordVisitor indexer = (seg, seq, body) -> {
+                        partial.add(decode(seg, body), seq);
+                        recoveredEvents.incrementAndGet();
+                    };
+                    Segment segment = isCompressed
+                        ? CompressedSegment.open(file.getValue(), base, new EventEnvelopeCodec.Dictionary(), indexer)
+                        : LogSegment.open(file.getValue(), base, indexInterval, indexer);
+                    recoveredSegments.incrementAndGet();
+                    return new RecoveredSegment(segment, partial);
+                }));
+            }
+
+            long expected = 1;
+            for (ForkJoinTask<RecoveredSegment> task : tasks) {
+                RecoveredSegment recovered = task.join();
+                opened.add(recovered.segment());
+                if (recovered.segment().baseSequence() != expected) {
+                    throw new IllegalStateException("segment " + recovered.segment().baseSequence()
+                        + " does not continue the log at sequence " + expected);
+                }
+                index.merge(recovered.index());
+                expected = recovered.segment().lastSequence() + 1;
+            }
+        } catch (RuntimeException ex) {
+            closeQuietly(opened);
+            for (int i = opened.size(); i < tasks.size(); i++) {
+                try {
+                    closeQuietly(List.of(tasks.get(i).join().segment()));
+                } catch (RuntimeException ignored) {
+                    // already failing; the first error is rethrown below
+                }
+            }
+            throw ex;
+        } finally {
+            pool.shutdown();
+        }
+
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        log.info("Recovered {} event(s) from {} segment(s) in {} ms ({} events/s, parallelism={})",
+            recoveredEvents.get(), total, elapsedMillis, recoveredEvents.get() * 1000 / elapsedMillis,
+            pool.getParallelism());
+        return opened;
+    }
+
+    private record RecoveredSegment(Segment segment, EventIndex index) {}
+
+    private static void closeQuietly(List<Segment> segments) {
+        for (Segment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException ex) {
+                log.warn("Failed to close segment {} after a recovery error", segment.baseSequence(), ex);
+            }
+        }
+    }
+
+    @Override
+    public EventEnvelope append(EventEnvelope event) {
+        return append(event, false).orElseThrow();
+    }
+
+    /**
+     * Records go through one file channel, so appends serialize on the write lock
+     * anyway; the duplicate check simply happens under it.
+     */
+    @Override
+    public Optional<EventEnvelope> appendIfAbsent(EventEnvelope event) {
+        return append(event, true);
+    }
+
+    /**
+     * The whole batch is written under one acquisition of the write lock, and the
+     * durability wait happens once for all of it, so a grouped commit covers the batch.
+     */
+    @Override
+    public List<Optional<EventEnvelope>> appendAllIfAbsent(List<EventEnvelope> events) {
+        List<Optional<EventEnvelope>> result = new ArrayList<>(events.size());
+        List<CompletableFuture<Void>> durable = new ArrayList<>(events.size());
+        writeLock.lock();
+        try {
+            for (EventEnvelope event : events) {
+                CompletableFuture<Void> written = appendLocked(event, true);
+                result.add(written == null ? Optional.empty() : Optional.of(event));
+                if (written != null) {
+                    durable.add(written);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        durable.forEach(FileEventStore::awaitDurable);
+        return result;
+    }
+
+    private Optional<EventEnvelope> append(EventEnvelope event, boolean ifAbsent) {
+        CompletableFuture<Void> durable;
+        writeLock.lock();
+        try {
+            durable = appendLocked(event, ifAbsent);
+        } finally {
+            writeLock.unlock();
+        }
+        if (durable == null) {
+            return Optional.empty();
+        }
+        // Wait outside the write lock so concurrent appends can join the same group commit
+        awaitDurable(durable);
+        return Optional.of(event);
+    }
+
+    /**
+     * Caller holds the write lock.
+     *
+     * The event_id is claimed up front so a duplicate is detected while the first copy
+     * is still waiting to become durable. The sequence and index entry are published
+     * from the durability callback: commits complete in write order, and a callback
+     * only runs inline here when its commit already completed, before any later record
+     * was submitted, so publication stays in sequence order on a single writer.
+     *
+     * @return completes once the record is durable and published; {@code null} if
+     *         skipped as a duplicate
+     */
+    private CompletableFuture<Void> appendLocked(EventEnvelope event, boolean ifAbsent) {
+        RuntimeException failed = failure;
+        if (failed != null) {
+            throw new IllegalStateException("file event store at " + directory
+                + " failed and rejects appends until reopened", failed);
+        }
+        String eventId = event.getEventId();
+        boolean claimed = eventId != null && index.claim(eventId);
+        if (ifAbsent && eventId != null && !claimed) {
+            return null;
+        }
+        long seq = writtenSequence + 1;
+        event.setSequenceNumber(seq);
+        LogSegment active = this.active;
+        int mark = active.dictionary().size();
+        byte[] body;
+        try {
+            body = codec.encode(event, active.dictionary());
+            if (!active.isEmpty() && active.size() + LogSegment.HEADER_BYTES + body.length > segmentBytes) {
+                // Re-encode in the new segment's dictionary scope
+                active.dictionary().truncate(mark);
+                active = roll(seq);
+                mark = 0;
+                body = codec.encode(event, active.dictionary());
+            }
+            active.append(seq, body);
+        } catch (RuntimeException ex) {
+            // The record never reached the log: its definitions and claim must not be reused
+            active.dictionary().truncate(mark);
+            if (claimed) {
+                index.release(eventId);
+            }
+            event.setSequenceNumber(null);
+            throw ex;
+        }
+        // The record is in the segment now, so its sequence and definitions are taken
+        writtenSequence = seq;
+
+        CompletableFuture<Void> durable;
+        try {
+            durable = committer.submit(LogSegment.HEADER_BYTES + body.length);
+        } catch (RuntimeException ex) {
+            fail(ex);
+            throw ex;
+        }
+        return durable.whenComplete((ignored, error) -> {
+            if (error != null) {
+                fail(error instanceof RuntimeException runtime ? runtime : new CompletionException(error));
+            } else if (failure == null) {
+                index.add(event, seq);
+                latestSequence = seq;
+            }
+        });
+    }
+
+    /**
+     * A record was written but could not be committed. It stays in the segment, so
+     * neither its sequence nor its dictionary definitions can be handed out again, and
+     * later records cannot be published after a gap; recovery on reopen decides what
+     * survived.
+     */
+    private void fail(RuntimeException cause) {
+        if (failure == null) {
+            failure = cause;
+            log.error("File event store at {} failed after sequence {}; rejecting appends until reopened",
+                directory, latestSequence, cause);
+        }
+    }
+
+    private static void awaitDurable(CompletableFuture<Void> durable) {
+        try {
+            durable.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public List<EventEnvelope> query(Optional<String> traceId,
+                                    Optional<EventCategory> eventCategory,
+                                    Optional<String> subjectType,
+                                    Optional<String> subjectId,
+                                    long afterSequence,
+                                    int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<EventEnvelope> result = new ArrayList<>();
+        SequencePostingList candidates = index.mostSelective(traceId, eventCategory, subjectType, subjectId);
+        if (candidates == null) {
+            long last = latestSequence;
+            for (Segment segment : segments) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                if (segment.lastSequence() <= afterSequence) {
+                    continue;
+                }
+                // Scan in windows of `limit` sequences so a filled page stops reading the segment
+                long end = Math.min(segment.lastSequence(), last);
+                for (long from = Math.max(segment.baseSequence(), afterSequence + 1);
+                     from <= end && result.size() < limit; from += limit) {
+                    segment.scan(from, Math.min(end, from + limit - 1), (seg, seq, body) -> {
+                        if (result.size() < limit) {
+                            EventEnvelope e = decode(seg, body);
+                            if (EventIndex.matches(e, traceId, eventCategory, subjectType, subjectId)) {
+                                result.add(e);
+                            }
+                        }
+                    });
+                }
+            }
+            return result;
+        }
+
+        int size = candidates.size();
+        for (int i = candidates.firstAfter(afterSequence, size); i < size && result.size() < limit; i++) {
+            EventEnvelope e = read(candidates.get(i));
+            if (EventIndex.matches(e, traceId, eventCategory, subjectType, subjectId)) {
+                result.add(e);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean existsByEventId(String eventId) {
+        return index.sequenceOf(eventId) != null;
+    }
+
+    @Override
+    public Optional<EventEnvelope> findByEventId(String eventId) {
+        Long seq = index.sequenceOf(eventId);
+        return seq == null ? Optional.empty() : Optional.of(read(seq));
+    }
+
+    @Override
+    public long getLatestSequence() {
+        return latestSequence;
+    }
+
+    @Override
+    public List<EventEnvelope> queryBySequenceRange(long fromInclusive, long toInclusive, int limit) {
+        if (limit <= 0 || toInclusive < fromInclusive) {
+            return Collections.emptyList();
+        }
+        long from = Math.max(fromInclusive, 1);
+        long to = Math.min(toInclusive, latestSequence);
+        if (to < from) {
+            return Collections.emptyList();
+        }
+        long last = Math.min(to, from + limit - 1);
+        List<EventEnvelope> result = new ArrayList<>((int) (last - from + 1));
+        for (Segment segment : segments) {
+            if (segment.lastSequence() < from || segment.baseSequence() > last) {
+                continue;
+            }
+            segment.scan(from, last, (seg, seq, body) -> result.add(decode(seg, body)));
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        committer.close();
+        writeLock.lock();
+        try {
+            active.force();
+            for (Segment segment : segments) {
+                segment.close();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private EventEnvelope read(long sequence) {
+        List<Segment> snapshot = segments;
+        int low = 0;
+        int high = snapshot.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (snapshot.get(mid).baseSequence() <= sequence) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        Segment segment = snapshot.get(low);
+        return decode(segment, segment.read(sequence));
+    }
+
+    private LogSegment roll(long baseSequence) {
+        LogSegment previous = active;
+        previous.force();
+        LogSegment next = LogSegment.open(segmentPath(baseSequence), baseSequence, indexInterval, (seg, seq, body) -> { });
+        List<Segment> rolled = new ArrayList<>(segments);
+        rolled.add(next);
+        segments = List.copyOf(rolled);
+        active = next;
+        log.info("Rolled event log segment: sealed {} (sequences {}..{}), opened {}",
+            previous.path().getFileName(), previous.baseSequence(), previous.lastSequence(),
+            next.path().getFileName());
+        scheduleCompression(previous);
+        return next;
+    }
+
+    private void scheduleCompression(LogSegment sealed) {
+        if (!compression.enabled() || sealed.isEmpty()) {
+            return;
+        }
+        compactor.execute(() -> {
+            if (closed) {
+                return;
+            }
+            try {
+                compress(sealed);
+            } catch (RuntimeException | IOException ex) {
+                log.error("Failed to compress segment {}; it stays uncompressed", sealed.path(), ex);
+            }
+        });
+    }
+
+    private void compress(LogSegment sealed) throws IOException {
+        Path target = directory.resolve(String.format("%020d%s", sealed.baseSequence(), CompressedSegment.SUFFIX));
+        CompressedSegment compressed = CompressedSegment.compress(
+            sealed, target, (int) compression.blockSize().toBytes(), compression.level());
+        // Readers holding an older snapshot keep using the mapping after the channel closes
+        sealed.preload();
+        writeLock.lock();
+        try {
+            List<Segment> swapped = new ArrayList<>(segments);
+            swapped.set(swapped.indexOf(sealed), compressed);
+            segments = List.copyOf(swapped);
+        } finally {
+            writeLock.unlock();
+        }
+        sealed.close();
+        Files.deleteIfExists(sealed.path());
+        log.info("Compressed segment {} ({} -> {} bytes)",
+            target.getFileName(), sealed.size(), Files.size(target));
+    }
+
+    private Path segmentPath(long baseSequence) {
+        return directory.resolve(String.format("%020d%s", baseSequence, SEGMENT_SUFFIX));
+    }
+
+    private static long baseSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.indexOf('.')));
+    }
+
+    private EventEnvelope decode(Segment segment, byte[] body) {
+        return codec.decode(body, segment.dictionary());
+    }
+}
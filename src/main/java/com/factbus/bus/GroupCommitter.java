@@ -0,0 +1,181 @@
+package com.factbus.bus;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decides when appended bytes are forced to disk and when each append is acknowledged.
+ *
+ * In {@link DurabilityMode#GROUPED} mode, writers register a pending commit right after
+ * their bytes are written; a single flusher thread waits until the batch window has
+ * elapsed or enough bytes are pending, performs one force, and completes every commit
+ * registered before that force started.
+ *
+ * Commit latency (submit -> durable) is published as {@code factbus.store.commit.latency}
+ * with p50/p99.
+ */
+final class GroupCommitter implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitter.class);
+
+    private record PendingCommit(CompletableFuture<Void> future, long submittedAtNanos) {}
+
+    private final DurabilityMode mode;
+    private final long windowNanos;
+    private final long maxBatchBytes;
+    private final Runnable force;
+    private final Timer commitLatency;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushNeeded = lock.newCondition();
+    private List<PendingCommit> pending = new ArrayList<>();
+    private long pendingBytes;
+    private boolean closed;
+    private final Thread flusher;
+
+    GroupCommitter(DurabilityMode mode, Duration window, long maxBatchBytes,
+                   Runnable force, MeterRegistry meterRegistry) {
+        this.mode = mode;
+        this.windowNanos = window.toNanos();
+        this.maxBatchBytes = maxBatchBytes;
+        this.force = force;
+        this.commitLatency = Timer.builder("factbus.store.commit.latency")
+            .description("Time from append to durable acknowledgement")
+            .tag("mode", mode.name().toLowerCase())
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        if (mode == DurabilityMode.PER_EVENT) {
+            this.flusher = null;
+        } else {
+            this.flusher = new Thread(this::runFlusher, "factbus-group-commit");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        }
+    }
+
+    /**
+     * Registers {@code bytes} just written to the log. Must be called by the writer
+     * after the write and in write order.
+     *
+     * @return a future completed once those bytes are durable (immediately for ASYNC)
+     */
+    CompletableFuture<Void> submit(long bytes) {
+        long start = System.nanoTime();
+        switch (mode) {
+            case PER_EVENT -> {
+                force.run();
+                commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return CompletableFuture.completedFuture(null);
+            }
+            case ASYNC -> {
+                lock.lock();
+                try {
+                    addPending(bytes);
+                } finally {
+                    lock.unlock();
+                }
+                commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return CompletableFuture.completedFuture(null);
+            }
+            default -> {
+                CompletableFuture<Void> future = new CompletableFuture<>();
+                lock.lock();
+                try {
+                    if (closed) {
+                        throw new IllegalStateException("group committer is closed");
+                    }
+                    pending.add(new PendingCommit(future, start));
+                    addPending(bytes);
+                } finally {
+                    lock.unlock();
+                }
+                return future;
+            }
+        }
+    }
+
+    private void addPending(long bytes) {
+        boolean wasIdle = pendingBytes == 0;
+        pendingBytes += bytes;
+        if (wasIdle || pendingBytes >= maxBatchBytes) {
+            flushNeeded.signal();
+        }
+    }
+
+    private void runFlusher() {
+        while (true) {
+            List<PendingCommit> batch;
+            lock.lock();
+            try {
+                while (!closed && pendingBytes == 0) {
+                    flushNeeded.await();
+                }
+                // Let the batch fill until the window closes or the byte threshold is hit
+                long deadline = System.nanoTime() + windowNanos;
+                long remaining;
+                while (!closed && pendingBytes < maxBatchBytes
+                        && (remaining = deadline - System.nanoTime()) > 0) {
+                    flushNeeded.awaitNanos(remaining);
+                }
+                if (closed && pendingBytes == 0) {
+                    return;
+                }
+                batch = pending;
+                pending = new ArrayList<>();
+                pendingBytes = 0;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            flush(batch);
+        }
+    }
+
+    private void flush(List<PendingCommit> batch) {
+        try {
+            force.run();
+        } catch (RuntimeException ex) {
+            log.error("Group commit force failed for {} pending append(s)", batch.size(), ex);
+            batch.forEach(c -> c.future().completeExceptionally(ex));
+            return;
+        }
+        long now = System.nanoTime();
+        for (PendingCommit commit : batch) {
+            commitLatency.record(now - commit.submittedAtNanos(), TimeUnit.NANOSECONDS);
+            commit.future().complete(null);
+        }
+    }
+
+    /** Flushes anything still pending and stops the flusher thread. */
+    @Override
+    public void close() {
+        if (flusher == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            closed = true;
+            flushNeeded.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,26 +2,119 @@ package com.factbus.bus;
 
 import com.factbus.contract.EventCategory;
 import com.factbus.contract.EventEnvelope;
-import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.stream.Collectors;
 
-@Component
+/**
+ * Heap-only {@link EventStore}; the log is lost on restart.
+ *
+ * Appends take no global lock:
+ * - the event_id is claimed in the index (dedup for {@link #appendIfAbsent})
+ * - the sequence comes from an {@link AtomicLong} and fixes the log slot (sequence - 1)
+ * - the event is written into its slot concurrently with other appends
+ * - the indexes and the log high-water mark are then advanced strictly in sequence
+ *   order, so log order always equals sequence order and readers never see a gap
+ * - an append that fails after taking its sequence still publishes it, as a hole
+ *   readers skip, so one failure cannot stall every later append; its event_id claim
+ *   is released, so the event can be appended again
+ */
 public class InMemoryEventStore implements EventStore {
 
-    private final CopyOnWriteArrayList<EventEnvelope> events = new CopyOnWriteArrayList<>();
+    private final ChunkedLog<EventEnvelope> events = new ChunkedLog<>();
     private final AtomicLong sequence = new AtomicLong(0);
 
+    // The log position of an event is always sequence - 1
+    private final EventIndex index = new EventIndex();
+
     @Override
     public EventEnvelope append(EventEnvelope event) {
-        event.setSequenceNumber(sequence.incrementAndGet());
-        events.add(event);
+        return publish(event, false);
+    }
+
+    @Override
+    public Optional<EventEnvelope> appendIfAbsent(EventEnvelope event) {
+        boolean claimed = event.getEventId() != null;
+        if (claimed && !index.claim(event.getEventId())) {
+            return Optional.empty();
+        }
+        return Optional.of(publish(event, claimed));
+    }
+
+    /**
+     * The surviving events of the batch reserve one contiguous sequence range with a
+     * single increment, so no concurrent append can interleave with them.
+     */
+    @Override
+    public List<Optional<EventEnvelope>> appendAllIfAbsent(List<EventEnvelope> batch) {
+        List<Optional<EventEnvelope>> result = new ArrayList<>(batch.size());
+        List<EventEnvelope> claimed = new ArrayList<>(batch.size());
+        for (EventEnvelope event : batch) {
+            if (event.getEventId() != null && !index.claim(event.getEventId())) {
+                result.add(Optional.empty());
+            } else {
+                claimed.add(event);
+                result.add(Optional.of(event));
+            }
+        }
+        if (claimed.isEmpty()) {
+            return result;
+        }
+
+        long first = sequence.addAndGet(claimed.size()) - claimed.size() + 1;
+        try {
+            for (int i = 0; i < claimed.size(); i++) {
+                EventEnvelope event = claimed.get(i);
+                event.setSequenceNumber(first + i);
+                events.set(first + i - 1, event);
+            }
+        } catch (RuntimeException | Error ex) {
+            // Nothing of the batch is indexed yet: turn the whole range into holes
+            for (long position = first - 1; position < first - 1 + claimed.size(); position++) {
+                events.skip(position);
+            }
+            for (EventEnvelope event : claimed) {
+                if (event.getEventId() != null) {
+                    index.release(event.getEventId());
+                }
+            }
+            throw ex;
+        }
+        events.awaitTurn(first - 1);
+        try {
+            for (EventEnvelope event : claimed) {
+                index.add(event, event.getSequenceNumber());
+            }
+        } finally {
+            events.publish(first + claimed.size() - 2);
+        }
+        return result;
+    }
+
+    /** @param claimed whether the event_id was claimed for this append and must be released if it fails */
+    private EventEnvelope publish(EventEnvelope event, boolean claimed) {
+        long seq = sequence.incrementAndGet();
+        long position = seq - 1;
+        try {
+            event.setSequenceNumber(seq);
+            events.set(position, event);
+        } catch (RuntimeException | Error ex) {
+            events.skip(position);
+            if (claimed) {
+                index.release(event.getEventId());
+            }
+            throw ex;
+        }
+        // The index has a single-writer contract: take the turn, index, then publish
+        events.awaitTurn(position);
+        try {
+            index.add(event, seq);
+        } finally {
+            events.publish(position);
+        }
         return event;
     }
 
@@ -30,28 +123,55 @@ public class InMemoryEventStore implements EventStore {
                                     Optional<EventCategory> eventCategory,
                                     Optional<String> subjectType,
                                     Optional<String> subjectId,
+                                    long afterSequence,
                                     int limit) {
         if (limit <= 0) {
             return Collections.emptyList();
         }
 
-        return events.stream()
-            .filter(e -> traceId.map(t -> t.equals(e.getTraceId())).orElse(true))
-            .filter(e -> eventCategory.map(c -> c == e.getEventCategory()).orElse(true))
-            .filter(e -> subjectType.map(s -> e.getSubject() != null && s.equals(e.getSubject().getType())).orElse(true))
-            .filter(e -> subjectId.map(s -> e.getSubject() != null && s.equals(e.getSubject().getId())).orElse(true))
-            .limit(limit)
-            .collect(Collectors.toCollection(ArrayList::new));
+        List<EventEnvelope> result = new ArrayList<>();
+        long published = events.size();
+        SequencePostingList candidates = index.mostSelective(traceId, eventCategory, subjectType, subjectId);
+        if (candidates == null) {
+            for (long position = Math.max(afterSequence, 0); position < published && result.size() < limit; position++) {
+                EventEnvelope e = events.get(position);
+                if (e != null && EventIndex.matches(e, traceId, eventCategory, subjectType, subjectId)) {
+                    result.add(e);
+                }
+            }
+            return result;
+        }
+
+        // Walk the most selective posting list from the cursor and intersect with the remaining filters
+        int size = candidates.size();
+        for (int i = candidates.firstAfter(afterSequence, size); i < size && result.size() < limit; i++) {
+            long seq = candidates.get(i);
+            if (seq > published) {
+                break;
+            }
+            EventEnvelope e = events.get(seq - 1);
+            if (EventIndex.matches(e, traceId, eventCategory, subjectType, subjectId)) {
+                result.add(e);
+            }
+        }
+        return result;
     }
 
     @Override
     public boolean existsByEventId(String eventId) {
-        return events.stream().anyMatch(e -> eventId.equals(e.getEventId()));
+        return index.sequenceOf(eventId) != null;
+    }
+
+    @Override
+    public Optional<EventEnvelope> findByEventId(String eventId) {
+        Long seq = index.sequenceOf(eventId);
+        return seq == null ? Optional.empty() : Optional.of(events.get(seq - 1));
     }
 
     @Override
     public long getLatestSequence() {
-        return sequence.get();
+        // Published watermark; sequences reserved by in-flight appends are not counted
+        return events.size();
     }
 
     @Override
@@ -59,10 +179,20 @@ public class InMemoryEventStore implements EventStore {
         if (limit <= 0 || toInclusive < fromInclusive) {
             return Collections.emptyList();
         }
-        return events.stream()
-            .filter(e -> e.getSequenceNumber() != null)
-            .filter(e -> e.getSequenceNumber() >= fromInclusive && e.getSequenceNumber() <= toInclusive)
-            .limit(limit)
-            .collect(Collectors.toCollection(ArrayList::new));
+        // Sequences are dense and start at 1, so sequence n lives at log position n - 1
+        long from = Math.max(fromInclusive, 1);
+        long to = Math.min(toInclusive, events.size());
+        if (to < from) {
+            return Collections.emptyList();
+        }
+        int count = (int) Math.min(limit, to - from + 1);
+        List<EventEnvelope> result = new ArrayList<>(count);
+        for (long position = from - 1; position < to && result.size() < count; position++) {
+            EventEnvelope e = events.get(position);
+            if (e != null) {
+                result.add(e);
+            }
+        }
+        return result;
     }
 }
@@ -0,0 +1,279 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventEnvelopeCodec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * One rolling segment file of the durable event log.
+ *
+ * Record layout: [int body_length][int crc32(body)][long sequence_number][body].
+ * Records are appended through the file channel and read back through a read-only
+ * memory mapping. Reads never go past the committed size; when that outgrows the
+ * mapping, the new mapping doubles it, so a growing segment is remapped O(log size)
+ * times rather than after every append. Mapping past the end extends the file with
+ * zeros; {@link #close} cuts it back, and recovery stops at a zero header anyway.
+ *
+ * A sparse index keeps the file position of every {@code indexInterval}-th record,
+ * so a point read seeks to the nearest indexed record and walks at most
+ * {@code indexInterval - 1} headers forward.
+ *
+ * Bodies are {@link EventEnvelopeCodec} records; each segment is its own dictionary
+ * scope, so a segment can be decoded without reading any other segment.
+ */
+final class LogSegment implements Segment {
+
+    static final int HEADER_BYTES = 16;
+
+    private final Path path;
+    private final long baseSequence;
+    private final int indexInterval;
+    private final FileChannel channel;
+    private final EventEnvelopeCodec.Dictionary dictionary = new EventEnvelopeCodec.Dictionary();
+
+    // Sparse index: sequence -> file position, both ascending
+    private final SequencePostingList indexSequences = new SequencePostingList();
+    private final SequencePostingList indexPositions = new SequencePostingList();
+
+    private volatile long size;
+    private volatile long lastSequence;
+    private volatile MappedByteBuffer mapped;
+    private int mappings;
+
+    private LogSegment(Path path, long baseSequence, int indexInterval, FileChannel channel) {
+        this.path = path;
+        this.baseSequence = baseSequence;
+        this.indexInterval = indexInterval;
+        this.channel = channel;
+        this.lastSequence = baseSequence - 1;
+    }
+
+    /**
+     * Opens (or creates) a segment, validating every record. A torn or corrupt tail —
+     * e.g. from a crash mid-write — is truncated at the last valid record.
+     */
+    static LogSegment open(Path path, long baseSequence, int indexInterval, RecordVisitor visitor) {
+        try {
+            FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            LogSegment segment = new LogSegment(path, baseSequence, indexInterval, channel);
+            segment.recover(visitor);
+            return segment;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to open segment " + path, ex);
+        }
+    }
+
+    private void recover(RecordVisitor visitor) throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long position = 0;
+        long expected = baseSequence;
+        while (position + HEADER_BYTES <= fileSize) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            long sequence = header.getLong();
+            if (length < 0 || sequence != expected || position + HEADER_BYTES + length > fileSize) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(length);
+            channel.read(body, position + HEADER_BYTES);
+            if (crc32(body.array()) != crc) {
+                break;
+            }
+            indexRecord(sequence, position);
+            visitor.visit(this, sequence, body.array());
+            position += HEADER_BYTES + length;
+            expected++;
+        }
+        if (position < fileSize) {
+            channel.truncate(position);
+        }
+        size = position;
+        lastSequence = expected - 1;
+    }
+
+    /** Appends one record. Callers serialize appends and assign dense sequences. */
+    void append(long sequence, byte[] body) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(body.length).putInt(crc32(body)).putLong(sequence).flip();
+        long position = size;
+        try {
+            long written = 0;
+            ByteBuffer[] buffers = {header, ByteBuffer.wrap(body)};
+            channel.position(position);
+            while (written < HEADER_BYTES + body.length) {
+                written += channel.write(buffers);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to append to segment " + path, ex);
+        }
+        indexRecord(sequence, position);
+        size = position + HEADER_BYTES + body.length;
+        lastSequence = sequence;
+    }
+
+    void force() {
+        try {
+            channel.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to force segment " + path, ex);
+        }
+    }
+
+    @Override
+    public byte[] read(long sequence) {
+        if (sequence < baseSequence || sequence > lastSequence) {
+            throw new IllegalArgumentException("sequence " + sequence + " is not in segment " + path);
+        }
+        ByteBuffer view = view();
+        long position = floorPosition(sequence);
+        while (true) {
+            int length = view.getInt((int) position);
+            long recordSequence = view.getLong((int) position + 8);
+            if (recordSequence == sequence) {
+                byte[] body = new byte[length];
+                view.get((int) position + HEADER_BYTES, body);
+                return body;
+            }
+            position += HEADER_BYTES + length;
+        }
+    }
+
+    @Override
+    public void scan(long fromInclusive, long toInclusive, RecordVisitor visitor) {
+        long from = Math.max(fromInclusive, baseSequence);
+        long last = Math.min(toInclusive, lastSequence);
+        if (from > last) {
+            return;
+        }
+        long end = size;
+        ByteBuffer view = view();
+        long position = floorPosition(from);
+        while (position < end) {
+            int length = view.getInt((int) position);
+            long recordSequence = view.getLong((int) position + 8);
+            if (recordSequence > last) {
+                return;
+            }
+            if (recordSequence >= from) {
+                byte[] body = new byte[length];
+                view.get((int) position + HEADER_BYTES, body);
+                visitor.visit(this, recordSequence, body);
+            }
+            position += HEADER_BYTES + length;
+        }
+    }
+
+    @Override
+    public EventEnvelopeCodec.Dictionary dictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public long baseSequence() {
+        return baseSequence;
+    }
+
+    @Override
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    long size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return lastSequence < baseSequence;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /** Cuts the file back to the committed records, then closes it; the mapping stays readable. */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (channel.size() > size) {
+                channel.truncate(size);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void indexRecord(long sequence, long position) {
+        if ((sequence - baseSequence) % indexInterval == 0) {
+            // Positions first: a reader bounded by indexSequences.size() always finds its position
+            indexPositions.add(position);
+            indexSequences.add(sequence);
+        }
+    }
+
+    private long floorPosition(long sequence) {
+        int low = 0;
+        int high = indexSequences.size() - 1;
+        long position = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (indexSequences.get(mid) <= sequence) {
+                position = indexPositions.get(mid);
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return position;
+    }
+
+    /** Maps the whole committed file so reads keep working after the channel is closed. */
+    void preload() {
+        view();
+    }
+
+    /** Number of times the segment has been mapped. */
+    synchronized int mappings() {
+        return mappings;
+    }
+
+    private ByteBuffer view() {
+        MappedByteBuffer current = mapped;
+        long committed = size;
+        if (current == null || current.capacity() < committed) {
+            synchronized (this) {
+                current = mapped;
+                if (current == null || current.capacity() < committed) {
+                    // A first mapping covers what is there; only a segment that grew since gets headroom
+                    long capacity = current == null
+                        ? committed
+                        : Math.min(Math.max(committed, 2L * current.capacity()), Integer.MAX_VALUE);
+                    try {
+                        current = channel.map(FileChannel.MapMode.READ_ONLY, 0, capacity);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException("failed to map segment " + path, ex);
+                    }
+                    mapped = current;
+                    mappings++;
+                }
+            }
+        }
+        return current;
+    }
+
+    static int crc32(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,221 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.EventEnvelopeCodec;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Heap-light {@link EventStore}: envelopes are kept as {@link EventEnvelopeCodec}
+ * records in direct {@link ByteBuffer} arenas instead of as object graphs.
+ *
+ * - The heap holds only the indexes, one {@code long} offset per event and the
+ *   shared string dictionary; payload trees, boxed numbers and repeated strings
+ *   live off-heap, outside the reach of the garbage collector
+ * - Records never span arenas; a record is {@code [int length][body]} and its
+ *   offset is {@code arena * arenaBytes + position}
+ * - Envelopes are decoded on access, so every read returns a fresh copy
+ *
+ * Like {@link InMemoryEventStore} the log is lost on restart. Arenas count against
+ * {@code -XX:MaxDirectMemorySize}.
+ */
+public class OffHeapEventStore implements EventStore {
+
+    private static final int LENGTH_BYTES = Integer.BYTES;
+
+    private final int arenaBytes;
+    private final EventEnvelopeCodec codec = new EventEnvelopeCodec();
+    // One scope for the whole store: the writer defines, readers only look up
+    private final EventEnvelopeCodec.Dictionary dictionary = new EventEnvelopeCodec.Dictionary();
+    private final EventIndex index = new EventIndex();
+    // Not a monitor, so contended appends park virtual threads instead of pinning carriers
+    private final ReentrantLock lock = new ReentrantLock();
+    // Offset of the event with sequence n is at position n - 1 (offsets ascend, like sequences)
+    private final SequencePostingList offsets = new SequencePostingList();
+
+    // Replaced (never mutated in place) when a new arena is added
+    private volatile ByteBuffer[] arenas = new ByteBuffer[0];
+    private int writeArena = -1;
+    private int writePosition;
+    private volatile long latestSequence;
+
+    public OffHeapEventStore(int arenaBytes) {
+        if (arenaBytes <= LENGTH_BYTES) {
+            throw new IllegalArgumentException("arena size must be larger than " + LENGTH_BYTES + " bytes");
+        }
+        this.arenaBytes = arenaBytes;
+    }
+
+    @Override
+    public EventEnvelope append(EventEnvelope event) {
+        lock.lock();
+        try {
+            return appendLocked(event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private EventEnvelope appendLocked(EventEnvelope event) {
+        long seq = latestSequence + 1;
+        event.setSequenceNumber(seq);
+        int mark = dictionary.size();
+        try {
+            byte[] body = codec.encode(event, dictionary);
+            offsets.add(write(body));
+        } catch (RuntimeException ex) {
+            dictionary.truncate(mark);
+            event.setSequenceNumber(null);
+            throw ex;
+        }
+        latestSequence = seq;
+        index.add(event, seq);
+        return event;
+    }
+
+    @Override
+    public Optional<EventEnvelope> appendIfAbsent(EventEnvelope event) {
+        lock.lock();
+        try {
+            return appendIfAbsentLocked(event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** One lock acquisition for the whole batch, so its sequences are contiguous. */
+    @Override
+    public List<Optional<EventEnvelope>> appendAllIfAbsent(List<EventEnvelope> events) {
+        List<Optional<EventEnvelope>> result = new ArrayList<>(events.size());
+        lock.lock();
+        try {
+            for (EventEnvelope event : events) {
+                result.add(appendIfAbsentLocked(event));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    private Optional<EventEnvelope> appendIfAbsentLocked(EventEnvelope event) {
+        if (index.sequenceOf(event.getEventId()) != null) {
+            return Optional.empty();
+        }
+        return Optional.of(appendLocked(event));
+    }
+
+    @Override
+    public List<EventEnvelope> query(Optional<String> traceId,
+                                    Optional<EventCategory> eventCategory,
+                                    Optional<String> subjectType,
+                                    Optional<String> subjectId,
+                                    long afterSequence,
+                                    int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<EventEnvelope> result = new ArrayList<>();
+        SequencePostingList candidates = index.mostSelective(traceId, eventCategory, subjectType, subjectId);
+        if (candidates == null) {
+            long latest = latestSequence;
+            for (long seq = Math.max(afterSequence, 0) + 1; seq <= latest && result.size() < limit; seq++) {
+                EventEnvelope e = read(seq);
+                if (EventIndex.matches(e, traceId, eventCategory, subjectType, subjectId)) {
+                    result.add(e);
+                }
+            }
+            return result;
+        }
+
+        // Walk the most selective posting list; only candidates are decoded
+        int size = candidates.size();
+        for (int i = candidates.firstAfter(afterSequence, size); i < size && result.size() < limit; i++) {
+            EventEnvelope e = read(candidates.get(i));
+            if (EventIndex.matches(e, traceId, eventCategory, subjectType, subjectId)) {
+                result.add(e);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean existsByEventId(String eventId) {
+        return index.sequenceOf(eventId) != null;
+    }
+
+    @Override
+    public Optional<EventEnvelope> findByEventId(String eventId) {
+        Long seq = index.sequenceOf(eventId);
+        return seq == null ? Optional.empty() : Optional.of(read(seq));
+    }
+
+    @Override
+    public long getLatestSequence() {
+        return latestSequence;
+    }
+
+    @Override
+    public List<EventEnvelope> queryBySequenceRange(long fromInclusive, long toInclusive, int limit) {
+        if (limit <= 0 || toInclusive < fromInclusive) {
+            return Collections.emptyList();
+        }
+        long from = Math.max(fromInclusive, 1);
+        long to = Math.min(toInclusive, latestSequence);
+        if (to < from) {
+            return Collections.emptyList();
+        }
+        int count = (int) Math.min(limit, to - from + 1);
+        List<EventEnvelope> result = new ArrayList<>(count);
+        for (long seq = from; seq < from + count; seq++) {
+            result.add(read(seq));
+        }
+        return result;
+    }
+
+    /** Direct memory reserved by the arenas, in bytes. */
+    public long reservedBytes() {
+        return (long) arenas.length * arenaBytes;
+    }
+
+    // ---- internals ----
+
+    /** Caller holds {@link #lock}. */
+    private long write(byte[] body) {
+        int recordBytes = LENGTH_BYTES + body.length;
+        if (recordBytes > arenaBytes) {
+            throw new IllegalArgumentException("encoded event of " + body.length
+                + " bytes does not fit an arena of " + arenaBytes + " bytes");
+        }
+        if (writeArena < 0 || writePosition + recordBytes > arenaBytes) {
+            ByteBuffer[] grown = Arrays.copyOf(arenas, arenas.length + 1);
+            grown[grown.length - 1] = ByteBuffer.allocateDirect(arenaBytes);
+            arenas = grown;
+            writeArena = grown.length - 1;
+            writePosition = 0;
+        }
+        ByteBuffer arena = arenas[writeArena];
+        arena.putInt(writePosition, body.length);
+        arena.put(writePosition + LENGTH_BYTES, body);
+        long offset = (long) writeArena * arenaBytes + writePosition;
+        writePosition += recordBytes;
+        return offset;
+    }
+
+    private EventEnvelope read(long sequence) {
+        long offset = offsets.get((int) (sequence - 1));
+        ByteBuffer arena = arenas[(int) (offset / arenaBytes)];
+        int position = (int) (offset % arenaBytes);
+        byte[] body = new byte[arena.getInt(position)];
+        arena.get(position + LENGTH_BYTES, body);
+        return codec.decode(body, dictionary);
+    }
+}
@@ -0,0 +1,391 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory {@link EventStore} split into N subject partitions so that appends to
+ * different subjects do not contend on one log.
+ *
+ * - {@code (subject.type, subject.id)} hashes to a partition; events without a
+ *   subject are spread by event_id
+ * - Each partition has its own lock, chunked log and {@link EventIndex}; partition
+ *   indexes address the partition log by local position
+ * - A global sequence is still assigned (inside the partition lock, so every
+ *   partition log is ascending) and made visible strictly in order: an append
+ *   returns only once all lower sequences are published, so {@link #getLatestSequence()}
+ *   is always a gap-free watermark for replay; an append that fails after taking its
+ *   sequence still publishes it (as a hole) so it cannot stall later appends
+ * - Subject-scoped queries touch one partition; other queries and sequence range
+ *   reads merge the per-partition results by sequence through a heap of partition
+ *   heads, so a read costs O(results x log partitions)
+ * - The store-wide event_id claim also records the partition, so lookups by event_id
+ *   probe a single partition index
+ */
+public class PartitionedEventStore implements EventStore {
+
+    private final Partition[] partitions;
+    private final AtomicLong sequence = new AtomicLong();
+    // event_ids may land in any partition, so the dedup claim is store-wide; it maps to the target partition
+    private final ConcurrentHashMap<String, Partition> claimedEventIds = new ConcurrentHashMap<>();
+    // Highest sequence N such that 1..N are all visible
+    private final AtomicLong published = new AtomicLong();
+
+    public PartitionedEventStore(int partitionCount) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("partition count must be >= 1");
+        }
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i);
+        }
+    }
+
+    @Override
+    public EventEnvelope append(EventEnvelope event) {
+        Partition partition = partitionOf(event);
+        return publish(event, partition, claim(event, partition));
+    }
+
+    @Override
+    public Optional<EventEnvelope> appendIfAbsent(EventEnvelope event) {
+        Partition partition = partitionOf(event);
+        boolean claimed = claim(event, partition);
+        if (event.getEventId() != null && !claimed) {
+            return Optional.empty();
+        }
+        return Optional.of(publish(event, partition, claimed));
+    }
+
+    /** @return false if the event has no event_id or it is already claimed */
+    private boolean claim(EventEnvelope event, Partition partition) {
+        return event.getEventId() != null && claimedEventIds.putIfAbsent(event.getEventId(), partition) == null;
+    }
+
+    /** Drops the claim of an event that never reached its partition log; one that did can be read back. */
+    private void releaseUnplaced(EventEnvelope event, Partition partition) {
+        if (!partition.holds(event)) {
+            claimedEventIds.remove(event.getEventId(), partition);
+        }
+    }
+
+    /**
+     * The surviving events of the batch get one contiguous sequence range: the locks of
+     * every partition they touch are held (in partition order) while the range is
+     * claimed and the events are placed, so no other append can interleave with them
+     * and every partition log stays ascending.
+     */
+    @Override
+    public List<Optional<EventEnvelope>> appendAllIfAbsent(List<EventEnvelope> batch) {
+        List<Optional<EventEnvelope>> result = new ArrayList<>(batch.size());
+        List<EventEnvelope> claimed = new ArrayList<>(batch.size());
+        List<Partition> targets = new ArrayList<>(batch.size());
+        for (EventEnvelope event : batch) {
+            Partition partition = partitionOf(event);
+            if (event.getEventId() != null && !claim(event, partition)) {
+                result.add(Optional.empty());
+            } else {
+                claimed.add(event);
+                targets.add(partition);
+                result.add(Optional.of(event));
+            }
+        }
+        if (claimed.isEmpty()) {
+            return result;
+        }
+
+        boolean[] locked = new boolean[partitions.length];
+        for (Partition target : targets) {
+            locked[target.number] = true;
+        }
+        long first = 0;
+        for (int p = 0; p < partitions.length; p++) {
+            if (locked[p]) {
+                partitions[p].lock.lock();
+            }
+        }
+        int placed = 0;
+        try {
+            first = sequence.addAndGet(claimed.size()) - claimed.size() + 1;
+            for (; placed < claimed.size(); placed++) {
+                claimed.get(placed).setSequenceNumber(first + placed);
+                targets.get(placed).append(claimed.get(placed), first + placed);
+            }
+        } catch (RuntimeException | Error ex) {
+            for (int i = placed; i < claimed.size(); i++) {
+                if (claimed.get(i).getEventId() != null) {
+                    releaseUnplaced(claimed.get(i), targets.get(i));
+                }
+            }
+            throw ex;
+        } finally {
+            for (int p = partitions.length - 1; p >= 0; p--) {
+                if (locked[p]) {
+                    partitions[p].lock.unlock();
+                }
+            }
+            if (first > 0) {
+                publishInOrder(first, first + claimed.size() - 1);
+            }
+        }
+        return result;
+    }
+
+    /** @param claimed whether this append claimed the event_id, and must release it if it fails */
+    private EventEnvelope publish(EventEnvelope event, Partition partition, boolean claimed) {
+        long seq = 0;
+        partition.lock.lock();
+        try {
+            seq = sequence.incrementAndGet();
+            event.setSequenceNumber(seq);
+            partition.append(event, seq);
+        } catch (RuntimeException | Error ex) {
+            if (claimed) {
+                releaseUnplaced(event, partition);
+            }
+            throw ex;
+        } finally {
+            partition.lock.unlock();
+            // Published even if the append failed: the sequence is then a hole in the merge,
+            // instead of a watermark every later append waits on forever
+            if (seq > 0) {
+                publishInOrder(seq, seq);
+            }
+        }
+        return event;
+    }
+
+    private void publishInOrder(long first, long last) {
+        // The wait is only for appends already past their partition lock
+        for (int spins = 0; published.get() != first - 1; spins++) {
+            if (spins < 128) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        published.set(last);
+    }
+
+    @Override
+    public List<EventEnvelope> query(Optional<String> traceId,
+                                    Optional<EventCategory> eventCategory,
+                                    Optional<String> subjectType,
+                                    Optional<String> subjectId,
+                                    long afterSequence,
+                                    int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        long watermark = published.get();
+        if (subjectType.isPresent() && subjectId.isPresent()) {
+            return partitionOf(subjectType.get(), subjectId.get())
+                .query(traceId, eventCategory, subjectType, subjectId, afterSequence, limit, watermark);
+        }
+        List<List<EventEnvelope>> perPartition = new ArrayList<>(partitions.length);
+        for (Partition partition : partitions) {
+            perPartition.add(partition.query(traceId, eventCategory, subjectType, subjectId, afterSequence, limit,
+                watermark));
+        }
+        return merge(perPartition, limit);
+    }
+
+    @Override
+    public boolean existsByEventId(String eventId) {
+        Partition partition = claimedEventIds.get(eventId);
+        return partition != null && partition.index.sequenceOf(eventId) != null;
+    }
+
+    @Override
+    public Optional<EventEnvelope> findByEventId(String eventId) {
+        long watermark = published.get();
+        Partition partition = claimedEventIds.get(eventId);
+        Long local = partition == null ? null : partition.index.sequenceOf(eventId);
+        if (local == null) {
+            return Optional.empty();
+        }
+        EventEnvelope event = partition.events.get(local - 1);
+        return event.getSequenceNumber() <= watermark ? Optional.of(event) : Optional.empty();
+    }
+
+    @Override
+    public long getLatestSequence() {
+        return published.get();
+    }
+
+    @Override
+    public List<EventEnvelope> queryBySequenceRange(long fromInclusive, long toInclusive, int limit) {
+        if (limit <= 0 || toInclusive < fromInclusive) {
+            return Collections.emptyList();
+        }
+        long from = Math.max(fromInclusive, 1);
+        long to = Math.min(toInclusive, published.get());
+        if (to < from) {
+            return Collections.emptyList();
+        }
+        int count = (int) Math.min(limit, to - from + 1);
+
+        // k-way merge: each partition log is ascending, and together they cover every
+        // sequence except the holes left by failed appends
+        int[] cursor = new int[partitions.length];
+        PriorityQueue<Integer> heads = new PriorityQueue<>(partitions.length,
+            Comparator.comparingLong(p -> partitions[p].sequences.get(cursor[p])));
+        for (int p = 0; p < partitions.length; p++) {
+            cursor[p] = partitions[p].firstPositionAtOrAfter(from);
+            if (cursor[p] < partitions[p].sequences.size()) {
+                heads.add(p);
+            }
+        }
+        List<EventEnvelope> result = new ArrayList<>(count);
+        while (result.size() < count && !heads.isEmpty()) {
+            int p = heads.poll();
+            Partition partition = partitions[p];
+            if (partition.sequences.get(cursor[p]) > to) {
+                continue;
+            }
+            result.add(partition.events.get(cursor[p]++));
+            if (cursor[p] < partition.sequences.size()) {
+                heads.add(p);
+            }
+        }
+        return result;
+    }
+
+    // ---- internals ----
+
+    private Partition partitionOf(EventEnvelope event) {
+        EventEnvelope.Subject subject = event.getSubject();
+        if (subject != null && subject.getType() != null && subject.getId() != null) {
+            return partitionOf(subject.getType(), subject.getId());
+        }
+        return partitions[spread(String.valueOf(event.getEventId()).hashCode())];
+    }
+
+    private Partition partitionOf(String subjectType, String subjectId) {
+        return partitions[spread(EventIndex.subjectKey(subjectType, subjectId).hashCode())];
+    }
+
+    private int spread(int hash) {
+        return Math.floorMod(hash ^ (hash >>> 16), partitions.length);
+    }
+
+    private static List<EventEnvelope> merge(List<List<EventEnvelope>> sorted, int limit) {
+        List<EventEnvelope> result = new ArrayList<>();
+        int[] cursor = new int[sorted.size()];
+        PriorityQueue<Integer> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+            Comparator.comparingLong(i -> sorted.get(i).get(cursor[i]).getSequenceNumber()));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (!sorted.get(i).isEmpty()) {
+                heads.add(i);
+            }
+        }
+        while (result.size() < limit && !heads.isEmpty()) {
+            int best = heads.poll();
+            result.add(sorted.get(best).get(cursor[best]++));
+            if (cursor[best] < sorted.get(best).size()) {
+                heads.add(best);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * One partition: a log addressed by local position (1-based in {@link #index}),
+     * plus the global sequence of every position for range reads.
+     * Appends are serialized by the partition's lock.
+     */
+    private static final class Partition {
+
+        private final ChunkedLog<EventEnvelope> events = new ChunkedLog<>();
+        private final SequencePostingList sequences = new SequencePostingList();
+        private final EventIndex index = new EventIndex();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int number;
+
+        Partition(int number) {
+            this.number = number;
+        }
+
+        /** Whether {@code event} is the last one appended here; caller holds {@link #lock}. */
+        boolean holds(EventEnvelope event) {
+            long size = events.size();
+            return size > 0 && events.get(size - 1) == event;
+        }
+
+        void append(EventEnvelope event, long seq) {
+            long local = events.size() + 1;
+            events.append(event);
+            sequences.add(seq);
+            index.add(event, local);
+        }
+
+        List<EventEnvelope> query(Optional<String> traceId,
+                                  Optional<EventCategory> eventCategory,
+                                  Optional<String> subjectType,
+                                  Optional<String> subjectId,
+                                  long afterSequence,
+                                  int limit,
+                                  long watermark) {
+            List<EventEnvelope> result = new ArrayList<>();
+            SequencePostingList candidates = index.mostSelective(traceId, eventCategory, subjectType, subjectId);
+            long size = candidates == null ? events.size() : candidates.size();
+            long start = candidates == null
+                ? firstPositionAtOrAfter(afterSequence + 1)
+                : firstCandidateAfter(candidates, afterSequence);
+            for (long i = start; i < size && result.size() < limit; i++) {
+                long position = candidates == null ? i : candidates.get((int) i) - 1;
+                EventEnvelope e = events.get(position);
+                if (e.getSequenceNumber() > watermark) {
+                    break;
+                }
+                if (EventIndex.matches(e, traceId, eventCategory, subjectType, subjectId)) {
+                    result.add(e);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Binary search over a posting list of local positions, comparing the global
+         * sequence at each position (both ascend together).
+         */
+        int firstCandidateAfter(SequencePostingList candidates, long seq) {
+            int low = 0;
+            int high = candidates.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sequences.get((int) candidates.get(mid) - 1) <= seq) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /** Binary search over the ascending global sequences of this partition. */
+        int firstPositionAtOrAfter(long seq) {
+            int low = 0;
+            int high = sequences.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sequences.get(mid) < seq) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.factbus.bus;
+
+/**
+ * Where {@link EventBusService#publish} appends ({@code factbus.publish.mode}).
+ * Reactions always run in the reactor pipeline, see {@link AckLevel}.
+ */
+public enum PublishMode {
+
+    /** Validate and append on the calling (request) thread. */
+    DIRECT,
+
+    /**
+     * Validate on the calling thread, then hand the event to a ring buffer drained by
+     * a single sequencer thread that batch-appends and queues the reactions in sequence
+     * order; the caller waits for its event's outcome. Removes store contention between
+     * publishers. Events derived by reactors are still appended by their stages, so
+     * they interleave with published ones by timing.
+     */
+    SEQUENCER
+}
@@ -0,0 +1,21 @@
+package com.factbus.bus;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Publish path settings ({@code factbus.publish.*}).
+ *
+ * @param mode     direct (default) or sequencer, see {@link PublishMode}
+ * @param ringSize sequencer ring slots (rounded up to a power of two); producers block when it is full
+ * @param maxBatch most events the sequencer appends per store call
+ * @param batchLimit most events accepted by one batch publish request; at most {@code ringSize}
+ *                   in sequencer mode, where a batch takes its slots in the ring as one group
+ */
+@ConfigurationProperties(prefix = "factbus.publish")
+public record PublishProperties(
+    @DefaultValue("direct") PublishMode mode,
+    @DefaultValue("8192") int ringSize,
+    @DefaultValue("256") int maxBatch,
+    @DefaultValue("1000") int batchLimit
+) {}
@@ -0,0 +1,254 @@
+package com.factbus.bus;
+
+import com.factbus.api.DuplicateEventException;
+import com.factbus.contract.EventEnvelope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Single-writer publish path (see {@link PublishMode#SEQUENCER}).
+ *
+ * - Producers claim a slot in a preallocated ring with one atomic increment, fill
+ *   it and mark it available; they block only when the ring is full
+ * - One sequencer thread drains contiguous available slots in batches, appends each
+ *   batch with {@link EventStore#appendAllIfAbsent} and then hands every event of the
+ *   batch to the reactor in ring order
+ * - A {@link #submitAll} group is drained as a unit: only once all of its slots are
+ *   filled, and never split across store calls, even if that exceeds {@code maxBatch}
+ * - A producer's future completes once its event is appended, carrying the future
+ *   of its reactions, so the caller decides how long to wait
+ *
+ * Only producer publishes pass through the ring. Derived events are appended by the
+ * reactor stages themselves, so where they land between ring batches depends on
+ * timing; the ring fixes the order of publishes, not of the whole log.
+ */
+final class PublishSequencer implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(PublishSequencer.class);
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+    // Set in claimed once closed, so a claim and close() can never interleave
+    private static final long CLOSED = 1L << 62;
+
+    private final Slot[] ring;
+    private final int mask;
+    private final int maxBatch;
+    private final EventStore eventStore;
+    private final Function<EventEnvelope, CompletableFuture<Void>> reactor;
+    private final Thread thread;
+
+    // Number of ring positions claimed so far, plus the CLOSED bit
+    private final AtomicLong claimed = new AtomicLong();
+    // Highest ring position whose slot has been handed back to producers
+    private volatile long consumed = -1;
+    private volatile boolean idle;
+
+    /**
+     * @param ringSize slots in the ring, rounded up to a power of two
+     * @param reactor  starts the post-append work for one appended event; called on the
+     *                 sequencer thread in sequence order
+     */
+    PublishSequencer(int ringSize, int maxBatch, EventStore eventStore,
+                     Function<EventEnvelope, CompletableFuture<Void>> reactor) {
+        if (ringSize < 2 || maxBatch < 1) {
+            throw new IllegalArgumentException("ring size must be >= 2 and max batch >= 1");
+        }
+        int capacity = Integer.highestOneBit(ringSize - 1) << 1;
+        this.ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Slot();
+        }
+        this.mask = capacity - 1;
+        this.maxBatch = Math.min(maxBatch, capacity);
+        this.eventStore = eventStore;
+        this.reactor = reactor;
+        // A platform thread in either ThreadMode: it spins between batches
+        this.thread = new Thread(this::run, "factbus-sequencer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    CompletableFuture<Appended> submit(EventEnvelope event) {
+        return fill(claim(1), event, 1);
+    }
+
+    /**
+     * Claims consecutive ring positions for the whole list and marks them as one group,
+     * so the sequencer appends the events in a single store call with nothing
+     * interleaved.
+     *
+     * @throws IllegalArgumentException if the list does not fit the ring
+     */
+    List<CompletableFuture<Appended>> submitAll(List<EventEnvelope> events) {
+        if (events.size() > ring.length) {
+            throw new IllegalArgumentException("group of " + events.size()
+                + " events does not fit a ring of " + ring.length + " slots");
+        }
+        long first = claim(events.size());
+        List<CompletableFuture<Appended>> results = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            results.add(fill(first + i, events.get(i), i == 0 ? events.size() : 0));
+        }
+        return results;
+    }
+
+    /** Slots in the ring; {@link #submitAll} groups may not be larger. */
+    int capacity() {
+        return ring.length;
+    }
+
+    /**
+     * Claims {@code count} consecutive positions unless the sequencer is closed. The
+     * check and the claim are one CAS, so every successful claim is one the sequencer
+     * drains before it exits.
+     *
+     * @return the first claimed position
+     */
+    private long claim(int count) {
+        while (true) {
+            long current = claimed.get();
+            if ((current & CLOSED) != 0) {
+                throw new IllegalStateException("publish sequencer is closed");
+            }
+            if (claimed.compareAndSet(current, current + count)) {
+                return current;
+            }
+        }
+    }
+
+    /** @param span slots of the group starting at {@code position}; 0 inside a group */
+    private CompletableFuture<Appended> fill(long position, EventEnvelope event, int span) {
+        // Backpressure: wait until the sequencer has released the slot we wrap onto
+        for (int spins = 0; position - ring.length > consumed; spins++) {
+            if (spins < 128) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(10_000);
+            }
+        }
+        Slot slot = ring[(int) (position & mask)];
+        CompletableFuture<Appended> result = new CompletableFuture<>();
+        slot.event = event;
+        slot.result = result;
+        slot.span = span;
+        slot.available = position;
+        if (idle) {
+            LockSupport.unpark(thread);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        claimed.getAndUpdate(current -> current | CLOSED);
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Slot> batch = new ArrayList<>(maxBatch);
+        List<EventEnvelope> events = new ArrayList<>(maxBatch);
+        long next = 0;
+        while (true) {
+            while (batch.size() < maxBatch && ready(next)) {
+                int span = ring[(int) (next & mask)].span;
+                // A group goes whole into this batch, or starts the next one
+                if (!batch.isEmpty() && batch.size() + span > maxBatch) {
+                    break;
+                }
+                for (int i = 0; i < span; i++) {
+                    Slot slot = ring[(int) (next & mask)];
+                    batch.add(slot);
+                    events.add(slot.event);
+                    next++;
+                }
+            }
+            if (batch.isEmpty()) {
+                long state = claimed.get();
+                // Closed, and every position claimed before closing has been drained
+                if ((state & CLOSED) != 0 && (state & ~CLOSED) <= next) {
+                    return;
+                }
+                idle = true;
+                // Re-check after announcing idleness so a concurrent submit cannot be missed
+                if (!ready(next) && (claimed.get() & CLOSED) == 0) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                idle = false;
+                continue;
+            }
+
+            process(batch, events);
+            for (Slot slot : batch) {
+                slot.event = null;
+                slot.result = null;
+            }
+            consumed = next - 1;
+            batch.clear();
+            events.clear();
+        }
+    }
+
+    /** Whether the slot at {@code first} and, if it starts a group, all of the group are filled. */
+    private boolean ready(long first) {
+        Slot head = ring[(int) (first & mask)];
+        if (head.available != first) {
+            return false;
+        }
+        for (long position = first + head.span - 1; position > first; position--) {
+            if (ring[(int) (position & mask)].available != position) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void process(List<Slot> batch, List<EventEnvelope> events) {
+        List<Optional<EventEnvelope>> appended;
+        try {
+            appended = eventStore.appendAllIfAbsent(events);
+        } catch (RuntimeException ex) {
+            log.error("Sequencer batch append of {} event(s) failed", events.size(), ex);
+            batch.forEach(slot -> slot.result.completeExceptionally(ex));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Slot slot = batch.get(i);
+            Optional<EventEnvelope> event = appended.get(i);
+            if (event.isEmpty()) {
+                slot.result.completeExceptionally(new DuplicateEventException(slot.event.getEventId()));
+                continue;
+            }
+            CompletableFuture<Void> reactions;
+            try {
+                reactions = reactor.apply(event.get());
+            } catch (RuntimeException ex) {
+                reactions = CompletableFuture.failedFuture(ex);
+            }
+            slot.result.complete(new Appended(event.get(), reactions));
+        }
+    }
+
+    /** An appended event and the pending reactions to it. */
+    record Appended(EventEnvelope event, CompletableFuture<Void> reactions) {}
+
+    private static final class Slot {
+        EventEnvelope event;
+        CompletableFuture<Appended> result;
+        int span;
+        // Ring position this slot was last filled for; volatile write publishes event/result
+        volatile long available = -1;
+    }
+}
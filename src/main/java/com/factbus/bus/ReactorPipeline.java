@@ -0,0 +1,95 @@
+package com.factbus.bus;
+
+import com.factbus.api.OverloadedException;
+import com.factbus.contract.ContractViolationException;
+import com.factbus.contract.EventContractValidator;
+import com.factbus.contract.EventEnvelope;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs every appended event through the {@link ReactorStage}s whose reactor handles it.
+ *
+ * - Stages run independently; an event's reactions are done when all of its stages are
+ * - Events emitted by a stage are validated, appended and fed back into the pipeline
+ * - {@link #admit} refuses a publish while a stage it would feed is above its
+ *   admission watermark, so overload surfaces as 429 instead of queueing latency
+ */
+final class ReactorPipeline implements Closeable {
+
+    private final EventContractValidator validator;
+    private final EventStore eventStore;
+    private final List<ReactorStage> stages = new ArrayList<>();
+
+    /** Stages are closed in list order, so put sinks (fan-out) after stages that emit. */
+    ReactorPipeline(List<EventReactor> reactors, ReactorProperties properties,
+                    EventContractValidator validator, EventStore eventStore, ThreadMode threadMode) {
+        this.validator = validator;
+        this.eventStore = eventStore;
+        for (EventReactor reactor : reactors) {
+            stages.add(new ReactorStage(reactor, properties.stage(reactor.name()),
+                properties.admissionWatermark(), eventStore, threadMode, this::emit));
+        }
+    }
+
+    /** @throws OverloadedException if a stage that would receive {@code event} is saturated */
+    void admit(EventEnvelope event) {
+        for (ReactorStage stage : stages) {
+            if (stage.saturated() && stage.handles(event)) {
+                throw new OverloadedException("reactor stage '" + stage.name() + "' is saturated ("
+                    + stage.depth() + "/" + stage.capacity() + " queued), retry later");
+            }
+        }
+    }
+
+    /**
+     * Feeds the stages last to first, so a sink at the end of the list (fan-out) has
+     * the event queued before an earlier stage can emit anything derived from it.
+     *
+     * @return completes once every stage handling the event is done with it
+     */
+    CompletableFuture<Void> submit(EventEnvelope appended) {
+        List<CompletableFuture<Void>> pending = new ArrayList<>(stages.size());
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            ReactorStage stage = stages.get(i);
+            if (stage.handles(appended)) {
+                pending.add(stage.submit(appended));
+            }
+        }
+        return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new));
+    }
+
+    @Override
+    public void close() {
+        stages.forEach(ReactorStage::close);
+    }
+
+    private List<CompletableFuture<Void>> emit(List<EventEnvelope> derived) {
+        List<CompletableFuture<Void>> outcomes = new ArrayList<>(derived.size());
+        List<EventEnvelope> valid = new ArrayList<>(derived.size());
+        List<Integer> positions = new ArrayList<>(derived.size());
+        for (int i = 0; i < derived.size(); i++) {
+            try {
+                validator.validate(derived.get(i), eventStore);
+                valid.add(derived.get(i));
+                positions.add(i);
+                outcomes.add(null);
+            } catch (ContractViolationException ex) {
+                outcomes.add(CompletableFuture.failedFuture(ex));
+            }
+        }
+        if (!valid.isEmpty()) {
+            List<Optional<EventEnvelope>> appended = eventStore.appendAllIfAbsent(valid);
+            for (int i = 0; i < valid.size(); i++) {
+                outcomes.set(positions.get(i), appended.get(i)
+                    .map(this::submit)
+                    .orElseGet(() -> CompletableFuture.completedFuture(null)));
+            }
+        }
+        return outcomes;
+    }
+}
@@ -0,0 +1,46 @@
+package com.factbus.bus;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Reactor pipeline settings ({@code factbus.reactors.*}).
+ *
+ * @param defaults           stage settings used by every stage without an entry in {@code stages}
+ * @param stages             per-stage overrides, keyed by {@link EventReactor#name()}
+ * @param admissionWatermark queue fill ratio (0-1] at which publishes feeding that stage get 429
+ */
+@ConfigurationProperties(prefix = "factbus.reactors")
+public record ReactorProperties(
+    @DefaultValue Stage defaults,
+    Map<String, Stage> stages,
+    @DefaultValue("0.8") double admissionWatermark
+) {
+
+    public ReactorProperties {
+        stages = stages == null ? Map.of() : Map.copyOf(stages);
+        if (admissionWatermark <= 0 || admissionWatermark > 1) {
+            throw new IllegalArgumentException("admission-watermark must be in (0, 1], got: " + admissionWatermark);
+        }
+    }
+
+    /**
+     * @param queueCapacity most events waiting for the stage
+     * @param workers       threads draining the queue; 1 keeps the stage in append order
+     * @param maxBatch      most events one worker takes per round
+     * @param batchWindow   how long a worker waits for a batch to fill once it has one event
+     */
+    public record Stage(
+        @DefaultValue("4096") int queueCapacity,
+        @DefaultValue("1") int workers,
+        @DefaultValue("32") int maxBatch,
+        @DefaultValue("0ms") Duration batchWindow
+    ) {}
+
+    Stage stage(String name) {
+        return stages.getOrDefault(name, defaults);
+    }
+}
@@ -0,0 +1,206 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventEnvelope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * One {@link EventReactor} with its own bounded queue and workers.
+ *
+ * - Workers take up to {@code maxBatch} events, waiting at most {@code batchWindow}
+ *   for the batch to fill once the first one arrived
+ * - Everything the batch emits goes to the pipeline in one call, so derived events
+ *   of a batch are appended with one store call
+ * - An event's future completes once its emitted events are appended and reacted to
+ */
+final class ReactorStage implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactorStage.class);
+    // Queued by close() behind everything already submitted; each worker passes it on
+    private static final Item STOP = new Item(null, null);
+
+    private final EventReactor reactor;
+    private final EventStore eventStore;
+    private final Function<List<EventEnvelope>, List<CompletableFuture<Void>>> emit;
+    private final BlockingQueue<Item> queue;
+    private final int capacity;
+    private final int admissionLimit;
+    private final int maxBatch;
+    private final long batchWindowNanos;
+    private final List<Thread> workers = new ArrayList<>();
+
+    /**
+     * @param emit validates and appends derived events, returning one future per event
+     */
+    ReactorStage(EventReactor reactor, ReactorProperties.Stage settings, double admissionWatermark,
+                 EventStore eventStore, ThreadMode threadMode,
+                 Function<List<EventEnvelope>, List<CompletableFuture<Void>>> emit) {
+        if (settings.queueCapacity() < 1 || settings.workers() < 1 || settings.maxBatch() < 1) {
+            throw new IllegalArgumentException("reactor stage '" + reactor.name()
+                + "' needs queue-capacity, workers and max-batch >= 1");
+        }
+        this.reactor = reactor;
+        this.eventStore = eventStore;
+        this.emit = emit;
+        this.capacity = settings.queueCapacity();
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.admissionLimit = Math.max(1, (int) (capacity * admissionWatermark));
+        this.maxBatch = settings.maxBatch();
+        this.batchWindowNanos = settings.batchWindow().toNanos();
+        ThreadFactory threads = threadMode.factory("factbus-reactor-" + reactor.name() + "-");
+        for (int i = 0; i < settings.workers(); i++) {
+            Thread worker = threads.newThread(this::run);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    String name() {
+        return reactor.name();
+    }
+
+    boolean handles(EventEnvelope event) {
+        return reactor.handles(event);
+    }
+
+    /** Whether new publishes feeding this stage should be refused. */
+    boolean saturated() {
+        return queue.size() >= admissionLimit;
+    }
+
+    int depth() {
+        return queue.size();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Queues an appended event. Blocks if the queue is full: admission keeps headroom
+     * for in-flight publishes and derived events, so this is the last resort.
+     */
+    CompletableFuture<Void> submit(EventEnvelope event) {
+        Item item = new Item(event, new CompletableFuture<>());
+        try {
+            queue.put(item);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            item.done().completeExceptionally(ex);
+        }
+        return item.done();
+    }
+
+    /** Drains what is already queued, then stops the workers. */
+    @Override
+    public void close() {
+        try {
+            queue.put(STOP);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void run() {
+        List<Item> batch = new ArrayList<>(maxBatch);
+        boolean stopping = false;
+        try {
+            while (!stopping) {
+                Item first = queue.take();
+                batch.add(first);
+                if (first != STOP) {
+                    fill(batch);
+                }
+                stopping = batch.removeIf(item -> item == STOP);
+                if (!batch.isEmpty()) {
+                    process(batch);
+                }
+                batch.clear();
+            }
+            queue.put(STOP);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fill(List<Item> batch) throws InterruptedException {
+        queue.drainTo(batch, maxBatch - batch.size());
+        long deadline = System.nanoTime() + batchWindowNanos;
+        while (batch.size() < maxBatch) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            Item next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatch - batch.size());
+        }
+    }
+
+    private void process(List<Item> batch) {
+        List<EventEnvelope> emitted = new ArrayList<>();
+        int[] emittedCounts = new int[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            Item item = batch.get(i);
+            try {
+                List<EventEnvelope> outputs = reactor.react(item.event(), eventStore);
+                emitted.addAll(outputs);
+                emittedCounts[i] = outputs.size();
+            } catch (RuntimeException ex) {
+                log.warn("Reactor {} failed on event={}: {}", reactor.name(), item.event().getEventId(), ex.getMessage());
+                item.done().completeExceptionally(ex);
+                emittedCounts[i] = -1;
+            }
+        }
+
+        List<CompletableFuture<Void>> outcomes;
+        try {
+            outcomes = emitted.isEmpty() ? List.of() : emit.apply(emitted);
+        } catch (RuntimeException ex) {
+            log.error("Reactor {} could not append {} derived event(s)", reactor.name(), emitted.size(), ex);
+            batch.forEach(item -> item.done().completeExceptionally(ex));
+            return;
+        }
+        int offset = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (emittedCounts[i] < 0) {
+                continue;
+            }
+            List<CompletableFuture<Void>> own = outcomes.subList(offset, offset + emittedCounts[i]);
+            offset += emittedCounts[i];
+            Item item = batch.get(i);
+            CompletableFuture.allOf(own.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, ex) -> {
+                    if (ex != null) {
+                        item.done().completeExceptionally(ex);
+                    } else {
+                        item.done().complete(null);
+                    }
+                });
+        }
+    }
+
+    private record Item(EventEnvelope event, CompletableFuture<Void> done) {}
+}
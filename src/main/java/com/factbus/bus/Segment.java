@@ -0,0 +1,34 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventEnvelopeCodec;
+
+import java.io.Closeable;
+
+/**
+ * Read side of one segment of the durable event log, either the writable
+ * {@link LogSegment} or a sealed {@link CompressedSegment}.
+ */
+interface Segment extends Closeable {
+
+    /** Receives every valid record while a segment is being opened or scanned. */
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(Segment segment, long sequence, byte[] body);
+    }
+
+    long baseSequence();
+
+    long lastSequence();
+
+    /** Dictionary scope of the records in this segment. */
+    EventEnvelopeCodec.Dictionary dictionary();
+
+    /** Returns the body of the record with the given sequence number. */
+    byte[] read(long sequence);
+
+    /**
+     * Visits records with sequence in {@code [fromInclusive, min(toInclusive, lastSequence)]}
+     * in order, without reading past {@code toInclusive}.
+     */
+    void scan(long fromInclusive, long toInclusive, RecordVisitor visitor);
+}
@@ -0,0 +1,66 @@
+package com.factbus.bus;
+
+import java.util.Arrays;
+
+/**
+ * Append-only, ascending list of sequence numbers for one index key.
+ *
+ * Writes are serialized by the owning store; readers never lock. A reader takes
+ * {@link #size()} first and then reads up to that bound, which is safe because the
+ * backing array is always replaced before the size that covers it is published.
+ */
+final class SequencePostingList {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private volatile long[] sequences = new long[INITIAL_CAPACITY];
+    private volatile int size;
+
+    void add(long sequence) {
+        long[] current = sequences;
+        int n = size;
+        if (n == current.length) {
+            current = Arrays.copyOf(current, n << 1);
+        }
+        current[n] = sequence;
+        sequences = current;
+        size = n + 1;
+    }
+
+    /** Appends all of {@code tail}, whose entries must all be greater than this list's. */
+    void addAll(SequencePostingList tail) {
+        int extra = tail.size;
+        long[] current = sequences;
+        int n = size;
+        if (n + extra > current.length) {
+            current = Arrays.copyOf(current, Math.max(n << 1, n + extra));
+        }
+        System.arraycopy(tail.sequences, 0, current, n, extra);
+        sequences = current;
+        size = n + extra;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return sequences[index];
+    }
+
+    /** Index of the first entry greater than {@code sequence} within the first {@code size} entries. */
+    int firstAfter(long sequence, int size) {
+        long[] current = sequences;
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (current[mid] <= sequence) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
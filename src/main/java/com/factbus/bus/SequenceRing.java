@@ -0,0 +1,36 @@
+package com.factbus.bus;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size map from sequence number to encoded bytes. Slots are indexed by
+ * sequence, so a newer entry evicts the one exactly {@code capacity} sequences
+ * older and the recent tail stays resident. Readers and writers never lock.
+ */
+final class SequenceRing {
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+
+    /** @param capacity entries kept, rounded up to a power of two */
+    SequenceRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("cache capacity must be >= 1");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /** @return the bytes stored for {@code sequence}, or null */
+    byte[] get(long sequence) {
+        Entry entry = slots.get((int) (sequence & mask));
+        return entry != null && entry.sequence == sequence ? entry.bytes : null;
+    }
+
+    void put(long sequence, byte[] bytes) {
+        slots.set((int) (sequence & mask), new Entry(sequence, bytes));
+    }
+
+    private record Entry(long sequence, byte[] bytes) {}
+}
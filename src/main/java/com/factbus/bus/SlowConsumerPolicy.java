@@ -0,0 +1,20 @@
+package com.factbus.bus;
+
+/**
+ * What fan-out does when a subscriber's delivery queue is full
+ * ({@code factbus.subscriptions.slow-consumer-policy}).
+ */
+public enum SlowConsumerPolicy {
+
+    /** Evict the oldest queued event to make room; the subscriber sees a gap. */
+    DROP_OLDEST,
+
+    /** Close the subscription; an SSE client is disconnected and can resume. */
+    DISCONNECT,
+
+    /**
+     * Wait up to {@code block-timeout} for room, then drop the new event. Slows the
+     * fan-out stage for everyone while a subscriber is behind, bounded by the timeout.
+     */
+    BLOCK_WITH_TIMEOUT
+}
@@ -0,0 +1,332 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventEnvelope;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Live subscriptions, each with its own bounded queue and delivery thread, so a
+ * slow subscriber only ever delays itself.
+ *
+ * - {@link #deliver} only enqueues; full queues follow the {@link SlowConsumerPolicy}
+ * - Each subscription carries a {@link SubscriptionFilter}; a {@link SubscriptionRouter}
+ *   finds the matching subscriptions per event instead of every subscriber filtering
+ *   every event
+ * - A subscription may start from a sequence: its delivery thread first replays the
+ *   log from the store in pages, then serves the live queue, skipping live events the
+ *   replay already covered, so the hand-over has no gap and no duplicate
+ * - Delivery follows the sequence, not the fan-out order: concurrent publishes can
+ *   reach the fan-out out of order, so a live event that jumps ahead of the subscriber's
+ *   cursor first reads the events in between from the store. Later copies of those are
+ *   skipped, so a subscriber sees strictly increasing sequences and can resume after
+ *   the last one it got without missing anything
+ * - Delivery threads follow the {@link ThreadMode}; with virtual threads an idle
+ *   subscriber costs no OS thread, and the replay hand-over uses a lock rather than a
+ *   monitor so it never pins a carrier
+ * - Per subscription: {@code factbus.subscriber.lag} (queued events) and
+ *   {@code factbus.subscriber.dropped}, tagged with the subscription id
+ */
+final class SubscriberRegistry implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(SubscriberRegistry.class);
+
+    private final SubscriptionProperties properties;
+    private final EventStore eventStore;
+    private final MeterRegistry meterRegistry;
+    private final ThreadFactory threads;
+    private final ConcurrentHashMap<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final SubscriptionRouter<Subscription> router = new SubscriptionRouter<>();
+
+    SubscriberRegistry(SubscriptionProperties properties, EventStore eventStore, ThreadMode threadMode,
+                       MeterRegistry meterRegistry) {
+        if (properties.queueCapacity() < 1 || properties.replayPageSize() < 1) {
+            throw new IllegalArgumentException("subscription queue-capacity and replay-page-size must be >= 1");
+        }
+        this.properties = properties;
+        this.eventStore = eventStore;
+        this.meterRegistry = meterRegistry;
+        this.threads = threadMode.factory("factbus-subscriber-");
+    }
+
+    /**
+     * @param filter       events to deliver; replayed events are filtered the same way
+     * @param fromSequence first sequence to deliver, replayed from the store; 0 for live events only
+     * @param onDisconnect run if the bus closes the subscription (slow consumer or shutdown)
+     */
+    String subscribe(SubscriptionFilter filter, long fromSequence, Consumer<EventEnvelope> consumer,
+                     Runnable onDisconnect) {
+        Subscription subscription = new Subscription(UUID.randomUUID().toString(), filter, fromSequence,
+            consumer, onDisconnect);
+        subscriptions.put(subscription.id, subscription);
+        router.add(filter, subscription);
+        subscription.start();
+        return subscription.id;
+    }
+
+    void unsubscribe(String id) {
+        Subscription subscription = subscriptions.remove(id);
+        if (subscription != null) {
+            router.remove(subscription.filter, subscription);
+            subscription.stop();
+        }
+    }
+
+    void deliver(EventEnvelope event) {
+        router.route(event, subscription -> {
+            if (!subscription.offer(event)) {
+                log.warn("Disconnecting slow subscriber {} ({} events queued)", subscription.id, subscription.queue.size());
+                disconnect(subscription);
+            }
+        });
+    }
+
+    /** Subscriptions {@link #deliver} examines for {@code event}. */
+    int candidates(EventEnvelope event) {
+        return router.candidates(event);
+    }
+
+    @Override
+    public void close() {
+        subscriptions.values().forEach(this::disconnect);
+    }
+
+    private void disconnect(Subscription subscription) {
+        if (subscriptions.remove(subscription.id, subscription)) {
+            router.remove(subscription.filter, subscription);
+            subscription.stop();
+            try {
+                subscription.onDisconnect.run();
+            } catch (RuntimeException ex) {
+                log.warn("Disconnect callback failed for subscriber {}: {}", subscription.id, ex.getMessage());
+            }
+        }
+    }
+
+    private final class Subscription {
+
+        private final String id;
+        private final SubscriptionFilter filter;
+        private final long fromSequence;
+        private final Consumer<EventEnvelope> consumer;
+        private final Runnable onDisconnect;
+        private final BlockingQueue<EventEnvelope> queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        private final Gauge lag;
+        private final Counter dropped;
+        private volatile boolean open = true;
+        private final ReentrantLock handOver = new ReentrantLock();
+        // Guarded by handOver: set until the replay has covered everything evicted meanwhile
+        private boolean replaying;
+        private long evictedThrough;
+        // Highest sequence the slow consumer policy dropped; catching up must not read it back
+        private final AtomicLong droppedThrough = new AtomicLong();
+        // Owned by the worker: highest sequence delivered or passed over
+        private long cursor;
+        private volatile Thread worker;
+
+        Subscription(String id, SubscriptionFilter filter, long fromSequence, Consumer<EventEnvelope> consumer,
+                     Runnable onDisconnect) {
+            this.id = id;
+            this.filter = filter;
+            this.fromSequence = fromSequence;
+            this.replaying = fromSequence > 0;
+            this.cursor = fromSequence > 0 ? fromSequence - 1 : eventStore.getLatestSequence();
+            this.consumer = consumer;
+            this.onDisconnect = onDisconnect;
+            this.lag = Gauge.builder("factbus.subscriber.lag", queue, BlockingQueue::size)
+                .description("Events queued for a subscriber but not yet delivered")
+                .tag("subscription", id)
+                .strongReference(true)
+                .register(meterRegistry);
+            this.dropped = Counter.builder("factbus.subscriber.dropped")
+                .description("Events a subscriber never received because its queue was full")
+                .tag("subscription", id)
+                .register(meterRegistry);
+        }
+
+        void start() {
+            worker = threads.newThread(this::run);
+            worker.start();
+        }
+
+        /** @return false if the subscription must be disconnected */
+        boolean offer(EventEnvelope event) {
+            if (queue.offer(event)) {
+                return true;
+            }
+            handOver.lock();
+            try {
+                if (replaying) {
+                    // Not a loss: the replay re-reads everything up to the evicted sequence
+                    while (!queue.offer(event)) {
+                        EventEnvelope evicted = queue.poll();
+                        if (evicted != null) {
+                            evictedThrough = Math.max(evictedThrough, evicted.getSequenceNumber());
+                        }
+                    }
+                    return true;
+                }
+            } finally {
+                handOver.unlock();
+            }
+            switch (properties.slowConsumerPolicy()) {
+                case DROP_OLDEST -> {
+                    while (!queue.offer(event)) {
+                        EventEnvelope evicted = queue.poll();
+                        if (evicted != null) {
+                            drop(evicted);
+                        }
+                    }
+                    return true;
+                }
+                case BLOCK_WITH_TIMEOUT -> {
+                    try {
+                        if (!queue.offer(event, properties.blockTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                            drop(event);
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        drop(event);
+                    }
+                    return true;
+                }
+                default -> {
+                    return false;
+                }
+            }
+        }
+
+        private void drop(EventEnvelope event) {
+            droppedThrough.accumulateAndGet(event.getSequenceNumber(), Math::max);
+            dropped.increment();
+        }
+
+        void stop() {
+            open = false;
+            if (worker != null) {
+                worker.interrupt();
+            }
+            meterRegistry.remove(lag);
+            meterRegistry.remove(dropped);
+        }
+
+        private void run() {
+            if (fromSequence > 0) {
+                cursor = replay();
+            }
+            // stop() clears open before interrupting, so a worker either sees it here or is woken in take()
+            while (open) {
+                EventEnvelope event;
+                try {
+                    event = queue.take();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                sendInOrder(event);
+            }
+        }
+
+        /**
+         * Sends a live event no earlier than everything before it. Fan-out follows the
+         * append, and stores publish in sequence order, so once this event was fanned
+         * out every lower sequence is readable; the ones the queue does not hold yet
+         * are read from the store up front. Events at or below the cursor were already
+         * sent that way (or passed over) and are skipped.
+         */
+        private void sendInOrder(EventEnvelope event) {
+            long seq = event.getSequenceNumber();
+            if (seq <= cursor) {
+                return;
+            }
+            cursor = Math.max(cursor, Math.min(droppedThrough.get(), seq - 1));
+            if (seq > cursor + 1) {
+                catchUp(seq);
+            }
+            if (seq > cursor) {
+                cursor = seq;
+                send(event);
+            }
+        }
+
+        /** Reads matches after the cursor from the store until it has passed {@code seq}. */
+        private void catchUp(long seq) {
+            int pageSize = properties.replayPageSize();
+            while (open && cursor < seq) {
+                List<EventEnvelope> page = eventStore.query(
+                    Optional.ofNullable(filter.traceId()),
+                    Optional.ofNullable(filter.category()),
+                    Optional.ofNullable(filter.subjectType()),
+                    Optional.ofNullable(filter.subjectId()),
+                    cursor,
+                    pageSize);
+                for (EventEnvelope stored : page) {
+                    cursor = stored.getSequenceNumber();
+                    // The store query does not filter by event_name
+                    if (filter.matches(stored)) {
+                        send(stored);
+                    }
+                }
+                if (page.size() < pageSize) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Pages through the log until a read comes back empty. Everything appended
+         * before that read was either replayed or is still queued (fan-out follows the
+         * append), so live events at or below the returned sequence are duplicates.
+         * Pages again if the queue overflowed past that point in the meantime.
+         */
+        private long replay() {
+            long last = fromSequence - 1;
+            while (open) {
+                List<EventEnvelope> page = eventStore.queryBySequenceRange(last + 1, Long.MAX_VALUE,
+                    properties.replayPageSize());
+                for (EventEnvelope event : page) {
+                    if (filter.matches(event)) {
+                        send(event);
+                    }
+                }
+                if (!page.isEmpty()) {
+                    last = page.get(page.size() - 1).getSequenceNumber();
+                    continue;
+                }
+                handOver.lock();
+                try {
+                    if (evictedThrough <= last) {
+                        replaying = false;
+                        break;
+                    }
+                } finally {
+                    handOver.unlock();
+                }
+            }
+            return last;
+        }
+
+        private void send(EventEnvelope event) {
+            try {
+                consumer.accept(event);
+            } catch (Exception ex) {
+                log.warn("Subscriber notification failed for event={}: {}",
+                    event.getEventId(), ex.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+
+import java.util.Objects;
+
+/**
+ * What a subscription wants delivered; every non-null field must match.
+ *
+ * @param traceId     exact trace_id
+ * @param category    event category
+ * @param subjectType subject.type
+ * @param subjectId   subject.id
+ * @param eventName   exact event_name
+ */
+public record SubscriptionFilter(
+    String traceId,
+    EventCategory category,
+    String subjectType,
+    String subjectId,
+    String eventName
+) {
+
+    /** Every event. */
+    public static final SubscriptionFilter ALL = new SubscriptionFilter(null, null, null, null, null);
+
+    public boolean matches(EventEnvelope event) {
+        return (traceId == null || traceId.equals(event.getTraceId()))
+            && (category == null || category == event.getEventCategory())
+            && (subjectType == null || event.getSubject() != null && subjectType.equals(event.getSubject().getType()))
+            && (subjectId == null || event.getSubject() != null && subjectId.equals(event.getSubject().getId()))
+            && (eventName == null || eventName.equals(event.getEventName()));
+    }
+
+    /** Routing key for a full subject (type and id); null unless both are set. */
+    String subjectKey() {
+        return subjectType != null && subjectId != null ? subjectKey(subjectType, subjectId) : null;
+    }
+
+    static String subjectKey(String type, String id) {
+        return Objects.requireNonNull(type) + '\u0000' + Objects.requireNonNull(id);
+    }
+}
@@ -0,0 +1,25 @@
+package com.factbus.bus;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Subscriber delivery settings ({@code factbus.subscriptions.*}).
+ *
+ * @param queueCapacity       events buffered per subscriber
+ * @param slowConsumerPolicy  what happens when that buffer is full, see {@link SlowConsumerPolicy}
+ * @param blockTimeout        wait for room under {@link SlowConsumerPolicy#BLOCK_WITH_TIMEOUT}
+ * @param replayPageSize      events read per store call while a resumed subscription catches up
+ * @param jsonCacheSize       recent events whose JSON encoding is kept for fan-out and reads,
+ *                            see {@link EventJsonCache}
+ */
+@ConfigurationProperties(prefix = "factbus.subscriptions")
+public record SubscriptionProperties(
+    @DefaultValue("1024") int queueCapacity,
+    @DefaultValue("drop-oldest") SlowConsumerPolicy slowConsumerPolicy,
+    @DefaultValue("100ms") Duration blockTimeout,
+    @DefaultValue("500") int replayPageSize,
+    @DefaultValue("8192") int jsonCacheSize
+) {}
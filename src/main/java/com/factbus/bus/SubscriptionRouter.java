@@ -0,0 +1,134 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Routing index from subscription filters to subscribers.
+ *
+ * Each subscription is filed once, under its most selective constraint: trace_id,
+ * then full subject, then event_name, then category; filters without any of them
+ * go to the wildcard set. An event only looks at the buckets its own attributes
+ * point to, so routing cost follows the number of candidate subscriptions, not the
+ * total. Candidates are checked against their full filter before delivery.
+ */
+final class SubscriptionRouter<T> {
+
+    private final Map<String, Set<Route<T>>> byTrace = new ConcurrentHashMap<>();
+    private final Map<String, Set<Route<T>>> bySubject = new ConcurrentHashMap<>();
+    private final Map<String, Set<Route<T>>> byEventName = new ConcurrentHashMap<>();
+    private final Map<EventCategory, Set<Route<T>>> byCategory = new EnumMap<>(EventCategory.class);
+    private final Set<Route<T>> wildcard = ConcurrentHashMap.newKeySet();
+
+    SubscriptionRouter() {
+        for (EventCategory category : EventCategory.values()) {
+            byCategory.put(category, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    void add(SubscriptionFilter filter, T target) {
+        Route<T> route = new Route<>(filter, target);
+        if (filter.traceId() != null) {
+            addTo(byTrace, filter.traceId(), route);
+        } else if (filter.subjectKey() != null) {
+            addTo(bySubject, filter.subjectKey(), route);
+        } else if (filter.eventName() != null) {
+            addTo(byEventName, filter.eventName(), route);
+        } else if (filter.category() != null) {
+            byCategory.get(filter.category()).add(route);
+        } else {
+            wildcard.add(route);
+        }
+    }
+
+    void remove(SubscriptionFilter filter, T target) {
+        Route<T> route = new Route<>(filter, target);
+        if (filter.traceId() != null) {
+            removeFrom(byTrace, filter.traceId(), route);
+        } else if (filter.subjectKey() != null) {
+            removeFrom(bySubject, filter.subjectKey(), route);
+        } else if (filter.eventName() != null) {
+            removeFrom(byEventName, filter.eventName(), route);
+        } else if (filter.category() != null) {
+            byCategory.get(filter.category()).remove(route);
+        } else {
+            wildcard.remove(route);
+        }
+    }
+
+    /** Calls {@code sink} for every subscription whose filter matches {@code event}. */
+    void route(EventEnvelope event, Consumer<T> sink) {
+        if (event.getTraceId() != null) {
+            deliver(byTrace.get(event.getTraceId()), event, sink);
+        }
+        if (event.getSubject() != null && event.getSubject().getType() != null && event.getSubject().getId() != null) {
+            deliver(bySubject.get(SubscriptionFilter.subjectKey(event.getSubject().getType(), event.getSubject().getId())),
+                event, sink);
+        }
+        if (event.getEventName() != null) {
+            deliver(byEventName.get(event.getEventName()), event, sink);
+        }
+        if (event.getEventCategory() != null) {
+            deliver(byCategory.get(event.getEventCategory()), event, sink);
+        }
+        deliver(wildcard, event, sink);
+    }
+
+    /** Subscriptions {@link #route} examines for {@code event}: matches plus false candidates. */
+    int candidates(EventEnvelope event) {
+        int count = wildcard.size();
+        if (event.getTraceId() != null) {
+            count += size(byTrace.get(event.getTraceId()));
+        }
+        if (event.getSubject() != null && event.getSubject().getType() != null && event.getSubject().getId() != null) {
+            count += size(bySubject.get(SubscriptionFilter.subjectKey(event.getSubject().getType(), event.getSubject().getId())));
+        }
+        if (event.getEventName() != null) {
+            count += size(byEventName.get(event.getEventName()));
+        }
+        if (event.getEventCategory() != null) {
+            count += size(byCategory.get(event.getEventCategory()));
+        }
+        return count;
+    }
+
+    private static int size(Set<?> bucket) {
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    // The insert happens inside compute so a concurrent removeFrom cannot unmap the bucket
+    // between looking it up and adding to it, which would orphan the route
+    private static <K, T> void addTo(Map<K, Set<Route<T>>> index, K key, Route<T> route) {
+        index.compute(key, (k, bucket) -> {
+            Set<Route<T>> target = bucket == null ? ConcurrentHashMap.newKeySet() : bucket;
+            target.add(route);
+            return target;
+        });
+    }
+
+    private static <K, T> void removeFrom(Map<K, Set<Route<T>>> index, K key, Route<T> route) {
+        index.computeIfPresent(key, (k, bucket) -> {
+            bucket.remove(route);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    private void deliver(Set<Route<T>> bucket, EventEnvelope event, Consumer<T> sink) {
+        if (bucket == null) {
+            return;
+        }
+        for (Route<T> route : bucket) {
+            if (route.filter().matches(event)) {
+                sink.accept(route.target());
+            }
+        }
+    }
+
+    private record Route<T>(SubscriptionFilter filter, T target) {}
+}
@@ -0,0 +1,34 @@
+package com.factbus.bus;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Threads the bus blocks on: subscriber delivery, reactor stage workers, deferred
+ * publishes and WebSocket pumps. Follows {@code spring.threads.virtual.enabled}, which
+ * switches Tomcat request handling and the MVC async executor at the same time.
+ *
+ * The publish sequencer keeps a platform thread in both modes: it spins while
+ * draining the ring and would only tie up a carrier.
+ */
+public enum ThreadMode {
+
+    /** Daemon platform threads; a parked request or subscriber costs an OS thread. */
+    PLATFORM,
+
+    /** Virtual threads; parked requests and subscribers cost a heap object each. */
+    VIRTUAL;
+
+    /** @param prefix thread name prefix; a per-factory counter is appended */
+    public ThreadFactory factory(String prefix) {
+        if (this == VIRTUAL) {
+            return Thread.ofVirtual().name(prefix, 0).factory();
+        }
+        AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,530 @@
+package com.factbus.contract;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versioned binary encoding of {@link EventEnvelope} for storage and replication.
+ *
+ * Layout (format version 1):
+ * <pre>
+ *   byte    format version
+ *   varint  presence bits for the nullable envelope fields
+ *   varint  sequence_number
+ *   dict    schema_version
+ *   id      event_id            (UUID packed as two longs, or a raw string)
+ *   byte    event_category      (ordinal)
+ *   dict    event_name
+ *   zigzag  occurred_at seconds, varint nanos
+ *   string  trace_id
+ *   id      causation_id
+ *   producer: byte type (ordinal + 1, 0 = null), dict id, dict version
+ *   subject:  dict type, string id
+ *   value   payload             (tagged tree; map keys are dictionary-coded)
+ * </pre>
+ *
+ * Low-cardinality strings are dictionary-coded: the first use of a string within a
+ * {@link Dictionary} carries its definition inline, later uses only the id. A decoder
+ * using the same dictionary scope (a segment, a connection) learns definitions as it
+ * reads, so records stay self-describing within their scope.
+ *
+ * Payload values keep their Java type (Integer vs Long, Float vs Double, ...) so that
+ * decode(encode(e)) serializes to exactly the same JSON as e.
+ */
+public final class EventEnvelopeCodec {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int HAS_SEQUENCE = 1;
+    private static final int HAS_EVENT_ID = 1 << 1;
+    private static final int HAS_CATEGORY = 1 << 2;
+    private static final int HAS_OCCURRED_AT = 1 << 3;
+    private static final int HAS_CAUSATION = 1 << 4;
+    private static final int HAS_PRODUCER = 1 << 5;
+    private static final int HAS_SUBJECT = 1 << 6;
+
+    private static final int ID_UUID = 0;
+    private static final int ID_STRING = 1;
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_FALSE = 1;
+    private static final int TAG_TRUE = 2;
+    private static final int TAG_INT = 3;
+    private static final int TAG_LONG = 4;
+    private static final int TAG_DOUBLE = 5;
+    private static final int TAG_FLOAT = 6;
+    private static final int TAG_BIG_INTEGER = 7;
+    private static final int TAG_BIG_DECIMAL = 8;
+    private static final int TAG_STRING = 9;
+    private static final int TAG_LIST = 10;
+    private static final int TAG_MAP = 11;
+
+    private static final EventCategory[] CATEGORIES = EventCategory.values();
+    private static final ProducerType[] PRODUCER_TYPES = ProducerType.values();
+
+    /** Encodes with a throwaway dictionary, so the result is fully self-contained. */
+    public byte[] encode(EventEnvelope event) {
+        return encode(event, new Dictionary());
+    }
+
+    /** Decodes a self-contained record produced by {@link #encode(EventEnvelope)}. */
+    public EventEnvelope decode(byte[] bytes) {
+        return decode(bytes, new Dictionary());
+    }
+
+    /**
+     * Encodes an envelope, defining any dictionary strings it uses for the first time.
+     * Callers sharing a dictionary must serialize encodes.
+     */
+    public byte[] encode(EventEnvelope event, Dictionary dictionary) {
+        Output out = new Output(256, dictionary);
+        out.writeByte(FORMAT_VERSION);
+
+        int presence = 0;
+        if (event.getSequenceNumber() != null) presence |= HAS_SEQUENCE;
+        if (event.getEventId() != null) presence |= HAS_EVENT_ID;
+        if (event.getEventCategory() != null) presence |= HAS_CATEGORY;
+        if (event.getOccurredAt() != null) presence |= HAS_OCCURRED_AT;
+        if (event.getCausationId() != null) presence |= HAS_CAUSATION;
+        if (event.getProducer() != null) presence |= HAS_PRODUCER;
+        if (event.getSubject() != null) presence |= HAS_SUBJECT;
+        out.writeVarLong(presence);
+
+        if (event.getSequenceNumber() != null) {
+            out.writeVarLong(event.getSequenceNumber());
+        }
+        out.writeDictString(event.getSchemaVersion());
+        if (event.getEventId() != null) {
+            out.writeId(event.getEventId());
+        }
+        if (event.getEventCategory() != null) {
+            out.writeByte(event.getEventCategory().ordinal());
+        }
+        out.writeDictString(event.getEventName());
+        if (event.getOccurredAt() != null) {
+            out.writeVarLong(zigzag(event.getOccurredAt().getEpochSecond()));
+            out.writeVarLong(event.getOccurredAt().getNano());
+        }
+        out.writeString(event.getTraceId());
+        if (event.getCausationId() != null) {
+            out.writeId(event.getCausationId());
+        }
+        if (event.getProducer() != null) {
+            EventEnvelope.Producer producer = event.getProducer();
+            out.writeByte(producer.getType() == null ? 0 : producer.getType().ordinal() + 1);
+            out.writeDictString(producer.getId());
+            out.writeDictString(producer.getVersion());
+        }
+        if (event.getSubject() != null) {
+            out.writeDictString(event.getSubject().getType());
+            out.writeString(event.getSubject().getId());
+        }
+        out.writeValue(event.getPayload());
+        return out.toByteArray();
+    }
+
+    /** Decodes a record, learning any inline dictionary definitions it carries. */
+    public EventEnvelope decode(byte[] bytes, Dictionary dictionary) {
+        Input in = new Input(bytes, dictionary);
+        int version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("unsupported envelope format version: " + version);
+        }
+
+        long presence = in.readVarLong();
+        EventEnvelope event = new EventEnvelope();
+        if ((presence & HAS_SEQUENCE) != 0) {
+            event.setSequenceNumber(in.readVarLong());
+        }
+        event.setSchemaVersion(in.readDictString());
+        if ((presence & HAS_EVENT_ID) != 0) {
+            event.setEventId(in.readId());
+        }
+        if ((presence & HAS_CATEGORY) != 0) {
+            event.setEventCategory(CATEGORIES[in.readByte()]);
+        }
+        event.setEventName(in.readDictString());
+        if ((presence & HAS_OCCURRED_AT) != 0) {
+            long seconds = unzigzag(in.readVarLong());
+            event.setOccurredAt(Instant.ofEpochSecond(seconds, in.readVarLong()));
+        }
+        event.setTraceId(in.readString());
+        if ((presence & HAS_CAUSATION) != 0) {
+            event.setCausationId(in.readId());
+        }
+        if ((presence & HAS_PRODUCER) != 0) {
+            EventEnvelope.Producer producer = new EventEnvelope.Producer();
+            int type = in.readByte();
+            producer.setType(type == 0 ? null : PRODUCER_TYPES[type - 1]);
+            producer.setId(in.readDictString());
+            producer.setVersion(in.readDictString());
+            event.setProducer(producer);
+        }
+        if ((presence & HAS_SUBJECT) != 0) {
+            EventEnvelope.Subject subject = new EventEnvelope.Subject();
+            subject.setType(in.readDictString());
+            subject.setId(in.readString());
+            event.setSubject(subject);
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> payload = (Map<String, Object>) in.readValue();
+        event.setPayload(payload);
+        return event;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Append-only string dictionary scoped to a stream of records (e.g. one log segment).
+     *
+     * One writer defines entries; any number of readers may resolve ids concurrently.
+     */
+    public static final class Dictionary {
+
+        private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+        private volatile String[] strings = new String[64];
+        private volatile int size;
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Drops entries defined at or after {@code mark}, e.g. when the record that
+         * defined them was never written.
+         */
+        public synchronized void truncate(int mark) {
+            for (int id = mark; id < size; id++) {
+                ids.remove(strings[id]);
+                strings[id] = null;
+            }
+            size = Math.min(size, mark);
+        }
+
+        Integer idOf(String value) {
+            return ids.get(value);
+        }
+
+        synchronized int define(String value) {
+            Integer existing = ids.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            int id = size;
+            append(value);
+            return id;
+        }
+
+        synchronized void learn(int id, String value) {
+            if (id < size) {
+                if (!strings[id].equals(value)) {
+                    throw new IllegalStateException("dictionary entry " + id + " conflicts with inline definition");
+                }
+                return;
+            }
+            if (id != size) {
+                throw new IllegalStateException("dictionary entry " + id + " defined out of order");
+            }
+            append(value);
+        }
+
+        String lookup(int id) {
+            if (id >= size) {
+                throw new IllegalStateException("unknown dictionary entry " + id);
+            }
+            return strings[id];
+        }
+
+        private void append(String value) {
+            String[] current = strings;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size << 1);
+            }
+            current[size] = value;
+            strings = current;
+            ids.put(value, size);
+            size = size + 1;
+        }
+    }
+
+    private static final class Output {
+
+        private final Dictionary dictionary;
+        private byte[] buf;
+        private int pos;
+
+        Output(int capacity, Dictionary dictionary) {
+            this.buf = new byte[capacity];
+            this.dictionary = dictionary;
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buf[pos++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        /** Nullable string: varint (length + 1), 0 meaning null. */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        /**
+         * Nullable dictionary string: varint 0 for null, otherwise ((id + 1) << 1) with the
+         * low bit set when the definition follows inline.
+         */
+        void writeDictString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            Integer id = dictionary.idOf(value);
+            if (id != null) {
+                writeVarLong((id + 1L) << 1);
+                return;
+            }
+            int defined = dictionary.define(value);
+            writeVarLong(((defined + 1L) << 1) | 1);
+            writeString(value);
+        }
+
+        /** UUID-shaped ids are packed into 16 bytes when that round-trips exactly. */
+        void writeId(String value) {
+            UUID uuid = parseUuid(value);
+            if (uuid != null) {
+                writeByte(ID_UUID);
+                writeLong(uuid.getMostSignificantBits());
+                writeLong(uuid.getLeastSignificantBits());
+            } else {
+                writeByte(ID_STRING);
+                writeString(value);
+            }
+        }
+
+        void writeValue(Object value) {
+            if (value == null) {
+                writeByte(TAG_NULL);
+            } else if (value instanceof Boolean b) {
+                writeByte(b ? TAG_TRUE : TAG_FALSE);
+            } else if (value instanceof Integer i) {
+                writeByte(TAG_INT);
+                writeVarLong(zigzag(i));
+            } else if (value instanceof Long l) {
+                writeByte(TAG_LONG);
+                writeVarLong(zigzag(l));
+            } else if (value instanceof Double d) {
+                writeByte(TAG_DOUBLE);
+                writeLong(Double.doubleToRawLongBits(d));
+            } else if (value instanceof Float f) {
+                writeByte(TAG_FLOAT);
+                writeVarLong(Float.floatToRawIntBits(f) & 0xFFFFFFFFL);
+            } else if (value instanceof BigInteger bi) {
+                writeByte(TAG_BIG_INTEGER);
+                writeBytes(bi.toByteArray());
+            } else if (value instanceof BigDecimal bd) {
+                writeByte(TAG_BIG_DECIMAL);
+                writeVarLong(zigzag(bd.scale()));
+                writeBytes(bd.unscaledValue().toByteArray());
+            } else if (value instanceof String s) {
+                writeByte(TAG_STRING);
+                writeString(s);
+            } else if (value instanceof List<?> list) {
+                writeByte(TAG_LIST);
+                writeVarLong(list.size());
+                for (Object item : list) {
+                    writeValue(item);
+                }
+            } else if (value instanceof Map<?, ?> map) {
+                writeByte(TAG_MAP);
+                writeVarLong(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeDictString(entry.getKey() == null ? null : entry.getKey().toString());
+                    writeValue(entry.getValue());
+                }
+            } else {
+                throw new IllegalArgumentException(
+                    "unsupported payload value type: " + value.getClass().getName());
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensure(int bytes) {
+            if (pos + bytes > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + bytes));
+            }
+        }
+
+        private static UUID parseUuid(String value) {
+            if (value.length() != 36) {
+                return null;
+            }
+            try {
+                UUID uuid = UUID.fromString(value);
+                return uuid.toString().equals(value) ? uuid : null;
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] buf;
+        private final Dictionary dictionary;
+        private int pos;
+
+        Input(byte[] buf, Dictionary dictionary) {
+            this.buf = buf;
+            this.dictionary = dictionary;
+        }
+
+        int readByte() {
+            return buf[pos++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                byte b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+            }
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buf[pos++] & 0xFF);
+            }
+            return value;
+        }
+
+        byte[] readBytes() {
+            int length = (int) readVarLong();
+            byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+
+        String readString() {
+            long encoded = readVarLong();
+            if (encoded == 0) {
+                return null;
+            }
+            int length = (int) (encoded - 1);
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        String readDictString() {
+            long encoded = readVarLong();
+            if (encoded == 0) {
+                return null;
+            }
+            int id = (int) ((encoded >>> 1) - 1);
+            if ((encoded & 1) != 0) {
+                String value = readString();
+                dictionary.learn(id, value);
+                return value;
+            }
+            return dictionary.lookup(id);
+        }
+
+        String readId() {
+            if (readByte() == ID_UUID) {
+                return new UUID(readLong(), readLong()).toString();
+            }
+            return readString();
+        }
+
+        Object readValue() {
+            int tag = readByte();
+            return switch (tag) {
+                case TAG_NULL -> null;
+                case TAG_FALSE -> Boolean.FALSE;
+                case TAG_TRUE -> Boolean.TRUE;
+                case TAG_INT -> (int) unzigzag(readVarLong());
+                case TAG_LONG -> unzigzag(readVarLong());
+                case TAG_DOUBLE -> Double.longBitsToDouble(readLong());
+                case TAG_FLOAT -> Float.intBitsToFloat((int) readVarLong());
+                case TAG_BIG_INTEGER -> new BigInteger(readBytes());
+                case TAG_BIG_DECIMAL -> {
+                    int scale = (int) unzigzag(readVarLong());
+                    yield new BigDecimal(new BigInteger(readBytes()), scale);
+                }
+                case TAG_STRING -> readString();
+                case TAG_LIST -> {
+                    int size = (int) readVarLong();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue());
+                    }
+                    yield list;
+                }
+                case TAG_MAP -> {
+                    int size = (int) readVarLong();
+                    Map<String, Object> map = new LinkedHashMap<>(Math.max(4, size * 4 / 3 + 1));
+                    for (int i = 0; i < size; i++) {
+                        String key = readDictString();
+                        map.put(key, readValue());
+                    }
+                    yield map;
+                }
+                default -> throw new IllegalArgumentException("unknown payload value tag: " + tag);
+            };
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.factbus.fdr;
 
+import com.factbus.bus.EventReactor;
+import com.factbus.bus.EventStore;
 import com.factbus.contract.EventCategory;
 import com.factbus.contract.EventEnvelope;
 import com.factbus.contract.ProducerType;
@@ -27,7 +29,7 @@ import java.util.UUID;
  * - payload must include derivation_rule_id, derivation_rule_version,
  *   decision_id, execution_id
  */
-public class FactDerivationReactor {
+public class FactDerivationReactor implements EventReactor {
 
     private static final Logger log = LoggerFactory.getLogger(FactDerivationReactor.class);
 
@@ -39,6 +41,26 @@ public class FactDerivationReactor {
         this.rules = List.copyOf(rules);
     }
 
+    @Override
+    public String name() {
+        return "fdr";
+    }
+
+    @Override
+    public boolean handles(EventEnvelope event) {
+        return event.getEventCategory() == EventCategory.EXECUTION_EVENT;
+    }
+
+    @Override
+    public List<EventEnvelope> react(EventEnvelope executionEvent, EventStore eventStore) {
+        EventEnvelope derivedFact = tryDerive(executionEvent);
+        if (derivedFact == null) {
+            return List.of();
+        }
+        log.info("FDR triggering derived FACT_EVENT for execution_event={}", executionEvent.getEventId());
+        return List.of(derivedFact);
+    }
+
     /**
      * Attempts to derive a FACT_EVENT from the given EXECUTION_EVENT.
      *
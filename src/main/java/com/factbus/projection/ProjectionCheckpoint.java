@@ -0,0 +1,34 @@
+package com.factbus.projection;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.util.List;
+
+/**
+ * Point-in-time copy of all per-subject projection state.
+ *
+ * {@code sequence} is the highest log sequence folded into the state; a restart
+ * only has to replay {@code sequence + 1 ..} from the event store.
+ */
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+record ProjectionCheckpoint(
+    int formatVersion,
+    long sequence,
+    List<SubjectEntry> subjects
+) {
+
+    static final int FORMAT_VERSION = 1;
+
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    record SubjectEntry(
+        String subjectType,
+        String subjectId,
+        long version,
+        List<SubjectProjection.FactSnapshot> confirmedFacts,
+        List<SubjectProjection.DecisionSnapshot> approvedDecisions,
+        List<SubjectProjection.ExecutionSnapshot> executions,
+        List<String> executionDecisionEventIds,
+        List<String> derivedFactExecutionIds
+    ) {}
+}
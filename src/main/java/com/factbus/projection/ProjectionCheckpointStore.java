@@ -0,0 +1,109 @@
+package com.factbus.projection;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Directory of gzipped JSON {@link ProjectionCheckpoint} files.
+ *
+ * - Files are named after the sequence they cover, so the newest one sorts last
+ * - Each file is written to a temp file, forced and atomically renamed, so a crash
+ *   never leaves a half-written checkpoint behind
+ * - Only the newest {@code retain} checkpoints are kept
+ */
+final class ProjectionCheckpointStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectionCheckpointStore.class);
+    private static final String PREFIX = "projections-";
+    private static final String SUFFIX = ".json.gz";
+
+    private final Path directory;
+    private final int retain;
+    private final ObjectMapper objectMapper;
+
+    ProjectionCheckpointStore(Path directory, int retain, ObjectMapper objectMapper) {
+        if (retain < 1) {
+            throw new IllegalArgumentException("must retain at least one checkpoint");
+        }
+        this.directory = directory;
+        this.retain = retain;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Newest readable checkpoint that does not run ahead of {@code maxSequence}
+     * (a checkpoint past the end of the log belongs to a different log).
+     */
+    Optional<ProjectionCheckpoint> loadLatest(long maxSequence) {
+        List<Path> files = list();
+        for (int i = files.size() - 1; i >= 0; i--) {
+            Path file = files.get(i);
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                ProjectionCheckpoint checkpoint = objectMapper.readValue(in, ProjectionCheckpoint.class);
+                if (checkpoint.formatVersion() != ProjectionCheckpoint.FORMAT_VERSION) {
+                    log.warn("Skipping projection checkpoint {} with unsupported format {}",
+                        file.getFileName(), checkpoint.formatVersion());
+                } else if (checkpoint.sequence() > maxSequence) {
+                    log.warn("Skipping projection checkpoint {}: covers sequence {} but the log ends at {}",
+                        file.getFileName(), checkpoint.sequence(), maxSequence);
+                } else {
+                    return Optional.of(checkpoint);
+                }
+            } catch (IOException ex) {
+                log.warn("Skipping unreadable projection checkpoint {}", file.getFileName(), ex);
+            }
+        }
+        return Optional.empty();
+    }
+
+    void write(ProjectionCheckpoint checkpoint) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, checkpoint.sequence(), SUFFIX));
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+            objectMapper.writeValue(out, checkpoint);
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        List<Path> files = list();
+        for (int i = 0; i < files.size() - retain; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private List<Path> list() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing
+                .filter(p -> {
+                    String name = p.getFileName().toString();
+                    return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                })
+                .sorted()
+                .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("failed to list projection checkpoints in " + directory, ex);
+        }
+    }
+}
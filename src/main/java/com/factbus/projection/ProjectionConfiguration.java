@@ -0,0 +1,31 @@
+package com.factbus.projection;
+
+import com.factbus.bus.EventStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ProjectionProperties.class)
+public class ProjectionConfiguration {
+
+    /**
+     * With checkpoints enabled the newest checkpoint is loaded and the log tail
+     * replayed here, before the application starts serving reads.
+     */
+    @Bean(destroyMethod = "close")
+    public ProjectionService projectionService(EventStore eventStore,
+                                               ProjectionProperties properties,
+                                               ObjectMapper objectMapper) {
+        ProjectionProperties.Checkpoint checkpoint = properties.checkpoint();
+        if (!checkpoint.enabled()) {
+            return new ProjectionService(eventStore);
+        }
+        return new ProjectionService(
+            eventStore,
+            new ProjectionCheckpointStore(checkpoint.directory(), checkpoint.retain(), objectMapper),
+            checkpoint.interval()
+        );
+    }
+}
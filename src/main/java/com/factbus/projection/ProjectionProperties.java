@@ -0,0 +1,32 @@
+package com.factbus.projection;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Projection settings ({@code factbus.projection.*}).
+ */
+@ConfigurationProperties(prefix = "factbus.projection")
+public record ProjectionProperties(
+    @DefaultValue Checkpoint checkpoint
+) {
+
+    /**
+     * Only useful with a durable event store; a checkpoint that runs ahead of the
+     * log on startup is ignored.
+     *
+     * @param enabled   periodically checkpoint projection state and restore from it on startup
+     * @param directory where checkpoint files are kept
+     * @param interval  time between checkpoints (skipped when nothing was appended)
+     * @param retain    number of checkpoint files to keep
+     */
+    public record Checkpoint(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data/projections") Path directory,
+        @DefaultValue("60s") Duration interval,
+        @DefaultValue("2") int retain
+    ) {}
+}
@@ -1,17 +1,22 @@
 package com.factbus.projection;
 
-import com.factbus.contract.EventCategory;
 import com.factbus.contract.EventEnvelope;
 import com.factbus.bus.EventStore;
-import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Projection Service — builds per-subject state projections from the Event Log.
@@ -25,134 +30,179 @@ import java.util.HashSet;
  * Per §10.1 (Pending Decisions View):
  * - Any approved decision without a corresponding terminal execution is "pending"
  * - Any execution without a corresponding derived fact is "pending"
+ *
+ * State is maintained incrementally: every read first folds in the log tail
+ * since the last applied sequence. With checkpoints enabled, the full state is
+ * periodically written to disk tagged with its sequence, and startup loads the
+ * newest checkpoint and replays only the tail after it.
  */
-@Service
-public class ProjectionService {
+public class ProjectionService implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectionService.class);
+    private static final int REPLAY_BATCH = 4096;
 
     private final EventStore eventStore;
+    private final ProjectionCheckpointStore checkpoints;
+    private final ScheduledExecutorService checkpointer;
+    // Not a monitor: reads catch up on the log while holding it, which must not pin a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private final Map<String, SubjectState> subjects = new HashMap<>();
+    private long appliedSequence;
+    private long checkpointedSequence;
 
+    /** Without checkpoints; state is rebuilt from the whole log on first read. */
     public ProjectionService(EventStore eventStore) {
         this.eventStore = eventStore;
+        this.checkpoints = null;
+        this.checkpointer = null;
+    }
+
+    ProjectionService(EventStore eventStore, ProjectionCheckpointStore checkpoints, Duration interval) {
+        this.eventStore = eventStore;
+        this.checkpoints = checkpoints;
+        restore();
+        this.checkpointer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "factbus-projection-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        checkpointer.scheduleWithFixedDelay(this::checkpointQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public Optional<SubjectProjection> getProjection(String subjectType, String subjectId) {
+        lock.lock();
+        try {
+            catchUp();
+            SubjectState state = subjects.get(subjectKey(subjectType, subjectId));
+            return state != null ? Optional.of(state.toProjection()) : Optional.empty();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Build projection for a subject by scanning all events.
-     * For MVP this is a full scan; production would use incremental updates.
+     * Fold in the log tail and write a checkpoint if anything changed since the last one.
+     * No-op when checkpoints are disabled.
      */
-    public Optional<SubjectProjection> getProjection(String subjectType, String subjectId) {
-        List<EventEnvelope> allEvents = eventStore.query(
-            Optional.empty(),
-            Optional.empty(),
-            Optional.of(subjectType),
-            Optional.of(subjectId),
-            10000
-        );
-
-        if (allEvents.isEmpty()) {
-            return Optional.empty();
+    public void checkpoint() throws IOException {
+        if (checkpoints == null) {
+            return;
+        }
+        ProjectionCheckpoint snapshot;
+        lock.lock();
+        try {
+            catchUp();
+            if (appliedSequence == checkpointedSequence) {
+                return;
+            }
+            List<ProjectionCheckpoint.SubjectEntry> entries = new ArrayList<>(subjects.size());
+            for (SubjectState state : subjects.values()) {
+                entries.add(state.toCheckpoint());
+            }
+            snapshot = new ProjectionCheckpoint(ProjectionCheckpoint.FORMAT_VERSION, appliedSequence, entries);
+        } finally {
+            lock.unlock();
         }
+        // Serialization happens outside the lock; the snapshot holds immutable copies
+        checkpoints.write(snapshot);
+        lock.lock();
+        try {
+            checkpointedSequence = Math.max(checkpointedSequence, snapshot.sequence());
+        } finally {
+            lock.unlock();
+        }
+        log.info("Wrote projection checkpoint at sequence {} ({} subjects)",
+            snapshot.sequence(), snapshot.subjects().size());
+    }
 
-        List<SubjectProjection.FactSnapshot> confirmedFacts = new ArrayList<>();
-        Map<String, EventEnvelope> approvedDecisions = new LinkedHashMap<>(); // decision_id -> event
-        Map<String, EventEnvelope> executions = new LinkedHashMap<>(); // execution_id -> event
-        Set<String> executionDecisionEventIds = new HashSet<>(); // decision_event_ids with executions
-        Set<String> derivedFactExecutionIds = new HashSet<>(); // execution_ids with derived facts
+    /**
+     * Stops periodic checkpointing and writes a final checkpoint.
+     */
+    @Override
+    public void close() throws IOException {
+        if (checkpointer == null) {
+            return;
+        }
+        checkpointer.shutdown();
+        try {
+            checkpointer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        checkpoint();
+    }
 
-        long maxSequence = 0;
+    /** Highest log sequence folded into the projections. */
+    long appliedSequence() {
+        lock.lock();
+        try {
+            return appliedSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        for (EventEnvelope event : allEvents) {
-            if (event.getSequenceNumber() != null && event.getSequenceNumber() > maxSequence) {
-                maxSequence = event.getSequenceNumber();
-            }
+    // ---- internals ----
 
-            switch (event.getEventCategory()) {
-                case FACT_EVENT -> {
-                    Map<String, Object> payload = event.getPayload();
-                    String observedFrom = payload != null ? String.valueOf(payload.get("observed_from")) : "";
-
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> facts = payload != null && payload.get("facts") instanceof Map
-                        ? (Map<String, Object>) payload.get("facts")
-                        : Map.of();
-
-                    confirmedFacts.add(new SubjectProjection.FactSnapshot(
-                        event.getEventId(),
-                        event.getEventName(),
-                        event.getSequenceNumber() != null ? event.getSequenceNumber() : 0,
-                        event.getOccurredAt() != null ? event.getOccurredAt().toString() : "",
-                        observedFrom,
-                        facts
-                    ));
-
-                    // Track FDR-derived facts to resolve pending executions
-                    if ("executor_feedback".equals(observedFrom) && payload != null) {
-                        String execId = String.valueOf(payload.get("execution_id"));
-                        if (execId != null && !"null".equals(execId)) {
-                            derivedFactExecutionIds.add(execId);
-                        }
-                    }
-                }
-                case DECISION_EVENT -> {
-                    Map<String, Object> payload = event.getPayload();
-                    String outcome = payload != null ? String.valueOf(payload.get("outcome")) : "";
-                    if ("approved".equals(outcome)) {
-                        String decisionId = payload != null ? String.valueOf(payload.get("decision_id")) : "";
-                        approvedDecisions.put(event.getEventId(), event);
-                    }
+    private void restore() {
+        long started = System.nanoTime();
+        long latest = eventStore.getLatestSequence();
+        lock.lock();
+        try {
+            checkpoints.loadLatest(latest).ifPresent(checkpoint -> {
+                for (ProjectionCheckpoint.SubjectEntry entry : checkpoint.subjects()) {
+                    subjects.put(subjectKey(entry.subjectType(), entry.subjectId()), SubjectState.fromCheckpoint(entry));
                 }
-                case EXECUTION_EVENT -> {
-                    Map<String, Object> payload = event.getPayload();
-                    String executionId = payload != null ? String.valueOf(payload.get("execution_id")) : "";
-                    String decisionEventId = payload != null ? String.valueOf(payload.get("decision_event_id")) : "";
-                    executions.put(executionId, event);
-                    executionDecisionEventIds.add(decisionEventId);
-                }
-                default -> { /* governance/tool events don't affect projection state */ }
-            }
+                appliedSequence = checkpoint.sequence();
+                checkpointedSequence = checkpoint.sequence();
+            });
+            long fromCheckpoint = appliedSequence;
+            catchUp();
+            log.info("Projections restored in {} ms: checkpoint at sequence {}, replayed {} tail event(s)",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                fromCheckpoint, appliedSequence - fromCheckpoint);
+        } finally {
+            lock.unlock();
         }
+    }
 
-        // Pending decisions: approved but no execution event references them
-        List<SubjectProjection.DecisionSnapshot> pendingDecisions = new ArrayList<>();
-        for (Map.Entry<String, EventEnvelope> entry : approvedDecisions.entrySet()) {
-            if (!executionDecisionEventIds.contains(entry.getKey())) {
-                EventEnvelope dec = entry.getValue();
-                Map<String, Object> payload = dec.getPayload();
-                @SuppressWarnings("unchecked")
-                List<String> proposalIds = payload != null && payload.get("decision_on_proposals") instanceof List
-                    ? (List<String>) payload.get("decision_on_proposals")
-                    : List.of();
-
-                pendingDecisions.add(new SubjectProjection.DecisionSnapshot(
-                    dec.getEventId(),
-                    payload != null ? String.valueOf(payload.get("decision_id")) : "",
-                    "approved",
-                    dec.getSequenceNumber() != null ? dec.getSequenceNumber() : 0,
-                    dec.getOccurredAt() != null ? dec.getOccurredAt().toString() : "",
-                    proposalIds
-                ));
+    // Caller holds lock
+    private void catchUp() {
+        long latest = eventStore.getLatestSequence();
+        while (appliedSequence < latest) {
+            List<EventEnvelope> batch = eventStore.queryBySequenceRange(appliedSequence + 1, latest, REPLAY_BATCH);
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (EventEnvelope event : batch) {
+                apply(event);
+                appliedSequence = event.getSequenceNumber();
             }
         }
+    }
 
-        // Pending executions: execution event exists but no derived fact yet
-        List<SubjectProjection.ExecutionSnapshot> pendingExecutions = new ArrayList<>();
-        for (Map.Entry<String, EventEnvelope> entry : executions.entrySet()) {
-            if (!derivedFactExecutionIds.contains(entry.getKey())) {
-                EventEnvelope exec = entry.getValue();
-                Map<String, Object> payload = exec.getPayload();
-                pendingExecutions.add(new SubjectProjection.ExecutionSnapshot(
-                    exec.getEventId(),
-                    entry.getKey(),
-                    payload != null ? String.valueOf(payload.get("status")) : "",
-                    exec.getSequenceNumber() != null ? exec.getSequenceNumber() : 0,
-                    exec.getOccurredAt() != null ? exec.getOccurredAt().toString() : "",
-                    payload != null ? String.valueOf(payload.get("decision_event_id")) : ""
-                ));
-            }
+    private void apply(EventEnvelope event) {
+        if (event.getSubject() == null) {
+            return;
         }
+        String subjectType = event.getSubject().getType();
+        String subjectId = event.getSubject().getId();
+        subjects.computeIfAbsent(subjectKey(subjectType, subjectId), k -> new SubjectState(subjectType, subjectId))
+            .apply(event);
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (IOException | RuntimeException ex) {
+            log.error("Failed to write projection checkpoint", ex);
+        }
+    }
 
-        return Optional.of(new SubjectProjection(
-            subjectType, subjectId, maxSequence,
-            confirmedFacts, pendingDecisions, pendingExecutions
-        ));
+    private static String subjectKey(String subjectType, String subjectId) {
+        return subjectType + '\u0000' + subjectId;
     }
 }
@@ -0,0 +1,166 @@
+package com.factbus.projection;
+
+import com.factbus.contract.EventEnvelope;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mutable, incrementally maintained projection state for one subject.
+ *
+ * Holds everything needed to answer §10.1 "pending" questions without
+ * rescanning the log:
+ * - approved decisions and executions are kept in arrival order
+ * - pending = approved decisions without an execution / executions without a derived fact
+ *
+ * Not thread-safe; {@link ProjectionService} serializes access.
+ */
+final class SubjectState {
+
+    private final String subjectType;
+    private final String subjectId;
+    private long version;
+    private final List<SubjectProjection.FactSnapshot> confirmedFacts;
+    private final Map<String, SubjectProjection.DecisionSnapshot> approvedDecisions; // decision event_id -> snapshot
+    private final Map<String, SubjectProjection.ExecutionSnapshot> executions; // execution_id -> snapshot
+    private final Set<String> executionDecisionEventIds; // decision_event_ids with executions
+    private final Set<String> derivedFactExecutionIds; // execution_ids with derived facts
+
+    SubjectState(String subjectType, String subjectId) {
+        this.subjectType = subjectType;
+        this.subjectId = subjectId;
+        this.confirmedFacts = new ArrayList<>();
+        this.approvedDecisions = new LinkedHashMap<>();
+        this.executions = new LinkedHashMap<>();
+        this.executionDecisionEventIds = new HashSet<>();
+        this.derivedFactExecutionIds = new HashSet<>();
+    }
+
+    /**
+     * Fold one event (in sequence order) into the state.
+     */
+    void apply(EventEnvelope event) {
+        if (event.getSequenceNumber() != null && event.getSequenceNumber() > version) {
+            version = event.getSequenceNumber();
+        }
+
+        switch (event.getEventCategory()) {
+            case FACT_EVENT -> {
+                Map<String, Object> payload = event.getPayload();
+                String observedFrom = payload != null ? String.valueOf(payload.get("observed_from")) : "";
+
+                @SuppressWarnings("unchecked")
+                Map<String, Object> facts = payload != null && payload.get("facts") instanceof Map
+                    ? (Map<String, Object>) payload.get("facts")
+                    : Map.of();
+
+                confirmedFacts.add(new SubjectProjection.FactSnapshot(
+                    event.getEventId(),
+                    event.getEventName(),
+                    sequenceOf(event),
+                    occurredAtOf(event),
+                    observedFrom,
+                    facts
+                ));
+
+                // Track FDR-derived facts to resolve pending executions
+                if ("executor_feedback".equals(observedFrom) && payload != null) {
+                    String execId = String.valueOf(payload.get("execution_id"));
+                    if (!"null".equals(execId)) {
+                        derivedFactExecutionIds.add(execId);
+                    }
+                }
+            }
+            case DECISION_EVENT -> {
+                Map<String, Object> payload = event.getPayload();
+                String outcome = payload != null ? String.valueOf(payload.get("outcome")) : "";
+                if ("approved".equals(outcome)) {
+                    @SuppressWarnings("unchecked")
+                    List<String> proposalIds = payload.get("decision_on_proposals") instanceof List
+                        ? (List<String>) payload.get("decision_on_proposals")
+                        : List.of();
+                    approvedDecisions.put(event.getEventId(), new SubjectProjection.DecisionSnapshot(
+                        event.getEventId(),
+                        String.valueOf(payload.get("decision_id")),
+                        "approved",
+                        sequenceOf(event),
+                        occurredAtOf(event),
+                        proposalIds
+                    ));
+                }
+            }
+            case EXECUTION_EVENT -> {
+                Map<String, Object> payload = event.getPayload();
+                String executionId = payload != null ? String.valueOf(payload.get("execution_id")) : "";
+                String decisionEventId = payload != null ? String.valueOf(payload.get("decision_event_id")) : "";
+                executions.put(executionId, new SubjectProjection.ExecutionSnapshot(
+                    event.getEventId(),
+                    executionId,
+                    payload != null ? String.valueOf(payload.get("status")) : "",
+                    sequenceOf(event),
+                    occurredAtOf(event),
+                    payload != null ? String.valueOf(payload.get("decision_event_id")) : ""
+                ));
+                executionDecisionEventIds.add(decisionEventId);
+            }
+            default -> { /* governance/tool events don't affect projection state */ }
+        }
+    }
+
+    SubjectProjection toProjection() {
+        List<SubjectProjection.DecisionSnapshot> pendingDecisions = new ArrayList<>();
+        for (Map.Entry<String, SubjectProjection.DecisionSnapshot> entry : approvedDecisions.entrySet()) {
+            if (!executionDecisionEventIds.contains(entry.getKey())) {
+                pendingDecisions.add(entry.getValue());
+            }
+        }
+
+        List<SubjectProjection.ExecutionSnapshot> pendingExecutions = new ArrayList<>();
+        for (Map.Entry<String, SubjectProjection.ExecutionSnapshot> entry : executions.entrySet()) {
+            if (!derivedFactExecutionIds.contains(entry.getKey())) {
+                pendingExecutions.add(entry.getValue());
+            }
+        }
+
+        return new SubjectProjection(
+            subjectType, subjectId, version,
+            List.copyOf(confirmedFacts), pendingDecisions, pendingExecutions
+        );
+    }
+
+    // ---- checkpoint conversion ----
+
+    ProjectionCheckpoint.SubjectEntry toCheckpoint() {
+        return new ProjectionCheckpoint.SubjectEntry(
+            subjectType, subjectId, version,
+            List.copyOf(confirmedFacts),
+            List.copyOf(approvedDecisions.values()),
+            List.copyOf(executions.values()),
+            List.copyOf(executionDecisionEventIds),
+            List.copyOf(derivedFactExecutionIds)
+        );
+    }
+
+    static SubjectState fromCheckpoint(ProjectionCheckpoint.SubjectEntry entry) {
+        SubjectState state = new SubjectState(entry.subjectType(), entry.subjectId());
+        state.version = entry.version();
+        state.confirmedFacts.addAll(entry.confirmedFacts());
+        entry.approvedDecisions().forEach(d -> state.approvedDecisions.put(d.eventId(), d));
+        entry.executions().forEach(x -> state.executions.put(x.executionId(), x));
+        state.executionDecisionEventIds.addAll(entry.executionDecisionEventIds());
+        state.derivedFactExecutionIds.addAll(entry.derivedFactExecutionIds());
+        return state;
+    }
+
+    private static long sequenceOf(EventEnvelope event) {
+        return event.getSequenceNumber() != null ? event.getSequenceNumber() : 0;
+    }
+
+    private static String occurredAtOf(EventEnvelope event) {
+        return event.getOccurredAt() != null ? event.getOccurredAt().toString() : "";
+    }
+}
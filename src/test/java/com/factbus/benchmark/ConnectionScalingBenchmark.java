@@ -0,0 +1,181 @@
+package com.factbus.benchmark;
+
+import com.factbus.FactBusApplication;
+import com.factbus.bus.EventReactor;
+import com.factbus.bus.EventStore;
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.ProducerType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Platform vs virtual threads ({@code spring.threads.virtual.enabled}) under many
+ * concurrent connections: N clients each POST events with ack=reacted, and a
+ * {@code downstream} reactor sleeps {@code delay} ms per event to stand in for I/O
+ * bound reaction work, so every request holds its handler thread for that long.
+ * Platform mode is capped by Tomcat's 200 request threads; virtual mode is not.
+ *
+ * Boots the application once per mode on a random port. Not a unit test (surefire
+ * does not pick it up); run {@link #main} from the test classpath after
+ * {@code mvn test-compile}. Optional args: connection counts (comma separated), delay ms.
+ */
+public class ConnectionScalingBenchmark {
+
+    private static final int REQUESTS_PER_CONNECTION = 20;
+    private static final int ROUNDS = 2;
+
+    public static void main(String[] args) throws Exception {
+        int[] connections = Arrays.stream((args.length > 0 ? args[0] : "50,200,1000,2000").split(","))
+            .mapToInt(Integer::parseInt).toArray();
+        long delayMillis = args.length > 1 ? Long.parseLong(args[1]) : 5;
+        for (boolean virtual : new boolean[] {false, true}) {
+            try (ConfigurableApplicationContext context = start(virtual, delayMillis)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (int n : connections) {
+                        run(virtual, port, objectMapper, n, round == ROUNDS - 1);
+                    }
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtual, long delayMillis) {
+        return new SpringApplicationBuilder(FactBusApplication.class, DownstreamReactor.class)
+            .properties(
+                "server.port=0",
+                "spring.threads.virtual.enabled=" + virtual,
+                "factbus.reactors.stages.downstream.workers=512",
+                "factbus.reactors.stages.downstream.max-batch=1",
+                "factbus.reactors.stages.downstream.queue-capacity=8192",
+                "factbus.benchmark.delay-millis=" + delayMillis,
+                "logging.level.root=WARN")
+            .run();
+    }
+
+    private static void run(boolean virtual, int port, ObjectMapper objectMapper, int connections,
+                            boolean report) throws Exception {
+        URI uri = URI.create("http://localhost:" + port + "/v1/events?ack=reacted");
+        long[][] latencies = new long[connections][REQUESTS_PER_CONNECTION];
+        AtomicLong failed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> clients = new ArrayList<>();
+        try (HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30)).build()) {
+            for (int c = 0; c < connections; c++) {
+                long[] mine = latencies[c];
+                clients.add(Thread.ofVirtual().start(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < REQUESTS_PER_CONNECTION; i++) {
+                            HttpRequest request = HttpRequest.newBuilder(uri)
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(fact(i))))
+                                .build();
+                            long t0 = System.nanoTime();
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            mine[i] = System.nanoTime() - t0;
+                            if (response.statusCode() >= 300) {
+                                failed.incrementAndGet();
+                            }
+                        }
+                    } catch (Exception ex) {
+                        failed.incrementAndGet();
+                    }
+                }));
+            }
+            long t0 = System.nanoTime();
+            start.countDown();
+            for (Thread client : clients) {
+                client.join();
+            }
+            long elapsed = System.nanoTime() - t0;
+
+            if (report) {
+                long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+                System.out.printf("%s connections=%d: %,d req/s, latency p50=%d ms p99=%d ms max=%d ms, failed=%d%n",
+                    virtual ? "VIRTUAL" : "PLATFORM", connections, (long) all.length * 1_000_000_000L / elapsed,
+                    all[all.length / 2] / 1_000_000, all[(int) (all.length * 0.99)] / 1_000_000,
+                    all[all.length - 1] / 1_000_000, failed.get());
+            }
+        }
+    }
+
+    private static EventEnvelope fact(int i) {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(EventCategory.FACT_EVENT);
+        e.setEventName("OrderObserved");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId("trace-" + UUID.randomUUID());
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.SYSTEM);
+        p.setId("order-service");
+        p.setVersion("1.4.0");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId("ORD-" + i);
+        e.setSubject(s);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("observed_from", "api");
+        payload.put("facts", Map.of("status", "paid"));
+        e.setPayload(payload);
+        return e;
+    }
+
+    /**
+     * Reaction work that waits on a downstream system, holding the request for ack=reacted.
+     * Passed as a source rather than annotated, so component scans in tests never find it.
+     */
+    static class DownstreamReactor {
+
+        @Bean
+        EventReactor downstreamReactor(Environment environment) {
+            long delayMillis = environment.getProperty("factbus.benchmark.delay-millis", Long.class, 5L);
+            return new EventReactor() {
+                @Override
+                public String name() {
+                    return "downstream";
+                }
+
+                @Override
+                public boolean handles(EventEnvelope event) {
+                    return event.getEventCategory() == EventCategory.FACT_EVENT;
+                }
+
+                @Override
+                public List<EventEnvelope> react(EventEnvelope event, EventStore eventStore) {
+                    try {
+                        Thread.sleep(delayMillis);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return List.of();
+                }
+            };
+        }
+    }
+}
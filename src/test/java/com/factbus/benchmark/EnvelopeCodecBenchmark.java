@@ -0,0 +1,110 @@
+package com.factbus.benchmark;
+
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.EventEnvelopeCodec;
+import com.factbus.contract.ProducerType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binary codec vs Jackson JSON: encoded size and encode/decode cost per envelope.
+ *
+ * Not a unit test (surefire does not pick it up); run {@link #main} from the test
+ * classpath after {@code mvn test-compile}.
+ */
+public class EnvelopeCodecBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int EVENTS = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper json = new ObjectMapper().findAndRegisterModules();
+        EventEnvelopeCodec codec = new EventEnvelopeCodec();
+        EventEnvelope[] events = new EventEnvelope[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            events[i] = proposal(i);
+        }
+
+        byte[][] jsonBytes = new byte[EVENTS][];
+        byte[][] binaryBytes = new byte[EVENTS][];
+        long jsonTotal = 0;
+        long binaryTotal = 0;
+        EventEnvelopeCodec.Dictionary sizing = new EventEnvelopeCodec.Dictionary();
+        for (int i = 0; i < EVENTS; i++) {
+            jsonBytes[i] = json.writeValueAsBytes(events[i]);
+            binaryBytes[i] = codec.encode(events[i], sizing);
+            jsonTotal += jsonBytes[i].length;
+            binaryTotal += binaryBytes[i].length;
+        }
+        System.out.printf("avg size: json=%d bytes, binary=%d bytes (shared dictionary)%n",
+            jsonTotal / EVENTS, binaryTotal / EVENTS);
+
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            boolean measured = round >= WARMUP_ROUNDS;
+            EventEnvelopeCodec.Dictionary writer = new EventEnvelopeCodec.Dictionary();
+            EventEnvelopeCodec.Dictionary reader = new EventEnvelopeCodec.Dictionary();
+
+            long t0 = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                jsonBytes[i] = json.writeValueAsBytes(events[i]);
+            }
+            long t1 = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                json.readValue(jsonBytes[i], EventEnvelope.class);
+            }
+            long t2 = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                binaryBytes[i] = codec.encode(events[i], writer);
+            }
+            long t3 = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                codec.decode(binaryBytes[i], reader);
+            }
+            long t4 = System.nanoTime();
+
+            if (measured) {
+                System.out.printf("round %d: json encode=%d ns/op decode=%d ns/op | binary encode=%d ns/op decode=%d ns/op%n",
+                    round - WARMUP_ROUNDS + 1,
+                    (t1 - t0) / EVENTS, (t2 - t1) / EVENTS, (t3 - t2) / EVENTS, (t4 - t3) / EVENTS);
+            }
+        }
+    }
+
+    private static EventEnvelope proposal(int i) {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setSequenceNumber((long) i + 1);
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(EventCategory.PROPOSAL_EVENT);
+        e.setEventName("ProposedRefund");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId("trace-" + (i % 1000));
+        e.setCausationId(UUID.randomUUID().toString());
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.AGENT);
+        p.setId("refund-agent");
+        p.setVersion("2.3.1");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId("ORD-" + (i % 5000));
+        e.setSubject(s);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("proposal_id", "prp-" + i);
+        payload.put("proposed_action", Map.of("type", "refund", "amount", 500 + i % 100));
+        payload.put("based_on_events", List.of(UUID.randomUUID().toString()));
+        payload.put("risk_level", "medium");
+        payload.put("cost_estimate", 499.95);
+        payload.put("priority", 80);
+        payload.put("max_fact_age_ms", 600000);
+        e.setPayload(payload);
+        return e;
+    }
+}
@@ -0,0 +1,120 @@
+package com.factbus.benchmark;
+
+import com.factbus.bus.EventStore;
+import com.factbus.bus.InMemoryEventStore;
+import com.factbus.bus.OffHeapEventStore;
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.ProducerType;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Retained heap and GC time of {@link InMemoryEventStore} vs {@link OffHeapEventStore}
+ * after loading N proposal-sized events.
+ *
+ * Not a unit test (surefire does not pick it up); run {@link #main} from the test
+ * classpath after {@code mvn test-compile}, one JVM per store so the GC counters
+ * are not shared, e.g.
+ * {@code java -Xmx8g -XX:MaxDirectMemorySize=8g ... HeapFootprintBenchmark memory 5000000}
+ * and the same with {@code off-heap}.
+ */
+public class HeapFootprintBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String type = args.length > 0 ? args[0] : "memory";
+        int eventCount = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        EventStore store = switch (type) {
+            case "memory" -> new InMemoryEventStore();
+            case "off-heap" -> new OffHeapEventStore(64 << 20);
+            default -> throw new IllegalArgumentException("store type must be memory or off-heap");
+        };
+
+        long baseline = usedHeapAfterGc();
+        long gcCount0 = gcCount();
+        long gcMillis0 = gcMillis();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < eventCount; i++) {
+            store.append(proposal(i));
+        }
+        long loadMillis = (System.nanoTime() - t0) / 1_000_000;
+        long loadGcCount = gcCount() - gcCount0;
+        long loadGcMillis = gcMillis() - gcMillis0;
+
+        // Full-GC cost grows with what is retained; time a few explicit collections
+        long fullGcStart = System.nanoTime();
+        long retained = usedHeapAfterGc() - baseline;
+        long fullGcMillis = (System.nanoTime() - fullGcStart) / 1_000_000;
+
+        System.out.printf("%s: %d events loaded in %d ms%n", type, eventCount, loadMillis);
+        System.out.printf("  retained heap: %d MB (%d bytes/event)%n", retained >> 20, retained / eventCount);
+        if (store instanceof OffHeapEventStore offHeap) {
+            System.out.printf("  direct memory reserved: %d MB%n", offHeap.reservedBytes() >> 20);
+        }
+        System.out.printf("  GC during load: %d collections, %d ms total%n", loadGcCount, loadGcMillis);
+        System.out.printf("  3 x System.gc() after load: %d ms%n", fullGcMillis);
+
+        // Keep the store reachable until all measurements are taken
+        System.out.printf("  latest sequence: %d%n", store.getLatestSequence());
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static EventEnvelope proposal(int i) {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(EventCategory.PROPOSAL_EVENT);
+        e.setEventName("ProposedRefund");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId("trace-" + (i % 100_000));
+        e.setCausationId(UUID.randomUUID().toString());
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.AGENT);
+        p.setId("refund-agent");
+        p.setVersion("2.3.1");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId("ORD-" + (i % 500_000));
+        e.setSubject(s);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("proposal_id", "prp-" + i);
+        payload.put("proposed_action", Map.of("type", "refund", "amount", 500 + i % 100));
+        payload.put("based_on_events", List.of(UUID.randomUUID().toString()));
+        payload.put("risk_level", "medium");
+        payload.put("cost_estimate", 499.95);
+        payload.put("priority", 80);
+        payload.put("max_fact_age_ms", 600000);
+        e.setPayload(payload);
+        return e;
+    }
+}
@@ -0,0 +1,102 @@
+package com.factbus.benchmark;
+
+import com.factbus.bus.EventStore;
+import com.factbus.bus.InMemoryEventStore;
+import com.factbus.bus.PartitionedEventStore;
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.ProducerType;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Concurrent append throughput: single-log {@link InMemoryEventStore} vs
+ * {@link PartitionedEventStore}, for 1..N producer threads.
+ *
+ * Not a unit test (surefire does not pick it up); run {@link #main} from the test
+ * classpath after {@code mvn test-compile}.
+ */
+public class IngestScalingBenchmark {
+
+    private static final int EVENTS_PER_RUN = 1_000_000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        EventEnvelope[] events = new EventEnvelope[EVENTS_PER_RUN];
+        for (int i = 0; i < EVENTS_PER_RUN; i++) {
+            events[i] = fact(i);
+        }
+
+        for (int threads = 1; threads <= cores; threads <<= 1) {
+            for (int round = 0; round < ROUNDS; round++) {
+                long single = run(InMemoryEventStore::new, events, threads);
+                long partitioned = run(() -> new PartitionedEventStore(cores), events, threads);
+                if (round == ROUNDS - 1) {
+                    System.out.printf("threads=%d: single log %,d events/s | partitioned(%d) %,d events/s%n",
+                        threads, single, cores, partitioned);
+                }
+            }
+        }
+    }
+
+    private static long run(Supplier<EventStore> factory, EventEnvelope[] events, int threads) throws Exception {
+        EventStore store = factory.get();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        int perThread = events.length / threads;
+        for (int t = 0; t < threads; t++) {
+            int from = t * perThread;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (int i = from; i < from + perThread; i++) {
+                    store.append(events[i]);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - t0;
+        return (long) perThread * threads * 1_000_000_000L / elapsed;
+    }
+
+    private static EventEnvelope fact(int i) {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(EventCategory.FACT_EVENT);
+        e.setEventName("OrderObserved");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId("trace-" + (i % 10_000));
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.SYSTEM);
+        p.setId("order-service");
+        p.setVersion("1.4.0");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId("ORD-" + (i % 50_000));
+        e.setSubject(s);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("observed_from", "api");
+        payload.put("facts", Map.of("status", "paid"));
+        e.setPayload(payload);
+        return e;
+    }
+}
@@ -0,0 +1,149 @@
+package com.factbus.benchmark;
+
+import com.factbus.api.OverloadedException;
+import com.factbus.arbitration.ArbitrationService;
+import com.factbus.bus.AckLevel;
+import com.factbus.bus.EventBusService;
+import com.factbus.bus.EventJsonCache;
+import com.factbus.bus.InMemoryEventStore;
+import com.factbus.bus.PublishMode;
+import com.factbus.bus.PublishProperties;
+import com.factbus.bus.ReactorProperties;
+import com.factbus.bus.SlowConsumerPolicy;
+import com.factbus.bus.SubscriptionProperties;
+import com.factbus.bus.ThreadMode;
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventContractValidator;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.ProducerType;
+import com.factbus.fdr.FactDerivationReactor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link EventBusService#publish} throughput and latency: direct (request thread)
+ * vs the ring-buffer sequencer, and ack=reacted vs ack=appended, with N concurrent
+ * publishers. A subscriber burns {@link #REACTION_COST_NANOS} per event to stand in
+ * for downstream reaction work.
+ *
+ * Not a unit test (surefire does not pick it up); run {@link #main} from the test
+ * classpath after {@code mvn test-compile}. Optional arg: publisher threads.
+ */
+public class PublishPathBenchmark {
+
+    private static final int EVENTS_PER_THREAD = 50_000;
+    private static final int ROUNDS = 3;
+    private static final long REACTION_COST_NANOS = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (PublishMode mode : PublishMode.values()) {
+                for (AckLevel ack : List.of(AckLevel.REACTED, AckLevel.APPENDED)) {
+                    run(mode, ack, threads, round == ROUNDS - 1);
+                }
+            }
+        }
+    }
+
+    private static void run(PublishMode mode, AckLevel ack, int threads, boolean report) throws Exception {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        EventBusService bus = new EventBusService(
+            new EventContractValidator(),
+            new InMemoryEventStore(),
+            List.of(new FactDerivationReactor(List.of()), new ArbitrationService(List.of())),
+            new PublishProperties(mode, 8192, 256, 1000),
+            new ReactorProperties(new ReactorProperties.Stage(4096, 1, 64, Duration.ZERO), Map.of(), 0.8),
+            new SubscriptionProperties(4096, SlowConsumerPolicy.DROP_OLDEST, Duration.ofMillis(100), 500, 8192),
+            new EventJsonCache(new ObjectMapper().findAndRegisterModules(), 8192, meters),
+            ThreadMode.PLATFORM,
+            meters);
+        bus.subscribe(event -> {
+            long until = System.nanoTime() + REACTION_COST_NANOS;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+        });
+
+        long[][] latencies = new long[threads][EVENTS_PER_THREAD];
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong throttled = new AtomicLong();
+        List<Thread> publishers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long[] mine = latencies[t];
+            Thread publisher = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    EventEnvelope event = fact(i);
+                    long t0 = System.nanoTime();
+                    while (true) {
+                        try {
+                            bus.publish(event, ack);
+                            break;
+                        } catch (OverloadedException ex) {
+                            throttled.incrementAndGet();
+                            Thread.yield();
+                        }
+                    }
+                    mine[i] = System.nanoTime() - t0;
+                }
+            });
+            publisher.start();
+            publishers.add(publisher);
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        long elapsed = System.nanoTime() - t0;
+        bus.close();
+
+        if (report) {
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+            System.out.printf("%s ack=%s threads=%d: %,d events/s, latency p50=%d us p99=%d us p99.9=%d us, throttled=%d%n",
+                mode, ack, threads, (long) all.length * 1_000_000_000L / elapsed,
+                all[all.length / 2] / 1000, all[(int) (all.length * 0.99)] / 1000,
+                all[(int) (all.length * 0.999)] / 1000, throttled.get());
+        }
+    }
+
+    private static EventEnvelope fact(int i) {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(EventCategory.FACT_EVENT);
+        e.setEventName("OrderObserved");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId("trace-" + (i % 1000));
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.SYSTEM);
+        p.setId("order-service");
+        p.setVersion("1.4.0");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId("ORD-" + (i % 5000));
+        e.setSubject(s);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("observed_from", "api");
+        payload.put("facts", Map.of("status", "paid"));
+        e.setPayload(payload);
+        return e;
+    }
+}
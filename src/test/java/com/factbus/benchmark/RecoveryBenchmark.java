@@ -0,0 +1,100 @@
+package com.factbus.benchmark;
+
+import com.factbus.bus.DurabilityMode;
+import com.factbus.bus.EventStoreProperties;
+import com.factbus.bus.FileEventStore;
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.ProducerType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Startup recovery throughput of {@link FileEventStore}: events/sec re-indexed when
+ * reopening a persisted log, single-threaded vs the fork-join pool.
+ *
+ * Not a unit test (surefire does not pick it up); run {@link #main} from the test
+ * classpath after {@code mvn test-compile}. Optional arg: event count.
+ */
+public class RecoveryBenchmark {
+
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int eventCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dir = Files.createTempDirectory("factbus-recovery-bench");
+        try {
+            try (FileEventStore store = new FileEventStore(settings(dir, 1), new SimpleMeterRegistry())) {
+                for (int i = 0; i < eventCount; i++) {
+                    store.append(fact(i));
+                }
+            }
+            System.out.printf("wrote %d events (%d MB)%n", eventCount, directorySize(dir) >> 20);
+
+            int cores = Runtime.getRuntime().availableProcessors();
+            for (int round = 0; round < ROUNDS; round++) {
+                for (int parallelism : new int[] {1, cores}) {
+                    long t0 = System.nanoTime();
+                    try (FileEventStore store = new FileEventStore(settings(dir, parallelism), new SimpleMeterRegistry())) {
+                        long elapsed = System.nanoTime() - t0;
+                        System.out.printf("round %d parallelism=%d: %d ms, %,d events/s%n",
+                            round + 1, parallelism, elapsed / 1_000_000,
+                            store.getLatestSequence() * 1_000_000_000L / elapsed);
+                    }
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private static EventStoreProperties.File settings(Path dir, int parallelism) {
+        return new EventStoreProperties.File(dir, DataSize.ofMegabytes(8), 64,
+            new EventStoreProperties.Durability(DurabilityMode.ASYNC, Duration.ofMillis(50), DataSize.ofMegabytes(8)),
+            new EventStoreProperties.Compression(false, DataSize.ofKilobytes(64), 6),
+            parallelism);
+    }
+
+    private static long directorySize(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(p -> p.toFile().length()).sum();
+        }
+    }
+
+    private static EventEnvelope fact(int i) {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(EventCategory.FACT_EVENT);
+        e.setEventName("OrderObserved");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId("trace-" + (i % 10_000));
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.SYSTEM);
+        p.setId("order-service");
+        p.setVersion("1.4.0");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId("ORD-" + (i % 50_000));
+        e.setSubject(s);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("observed_from", "api");
+        payload.put("facts", Map.of("status", "paid", "amount", 100 + i % 900));
+        e.setPayload(payload);
+        return e;
+    }
+}
@@ -0,0 +1,417 @@
+package com.factbus.bus;
+
+import com.factbus.api.OverloadedException;
+import com.factbus.contract.ContractViolationException;
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventContractValidator;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.ProducerType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBusServiceTest {
+
+    @ParameterizedTest
+    @EnumSource(PublishMode.class)
+    @DisplayName("ack=appended returns with a sequence while reactions are still running; ack=reacted waits")
+    void ackLevels_decoupleProducerFromReactions(PublishMode mode) throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore();
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> notified = new CopyOnWriteArrayList<>();
+        EventReactor gate = reactor("gate", (event, eventStore) -> {
+            awaitQuietly(release);
+            notified.add(event.getEventId());
+            return List.of();
+        });
+        try (EventBusService bus = bus(store, mode, List.of(gate), reactorProperties(4096))) {
+
+            EventEnvelope appended = bus.publish(fact(), AckLevel.APPENDED);
+            assertEquals(1L, appended.getSequenceNumber());
+            assertTrue(notified.isEmpty(), "reactions must not have run yet");
+
+            release.countDown();
+            EventEnvelope reacted = bus.publish(fact(), AckLevel.REACTED);
+            assertEquals(List.of(appended.getEventId(), reacted.getEventId()), notified);
+        }
+    }
+
+    @Test
+    @DisplayName("ack=none validates up front and appends later")
+    void ackNone_validatesThenAppendsInBackground() throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore();
+        try (EventBusService bus = bus(store, PublishMode.DIRECT)) {
+            EventEnvelope invalid = fact();
+            invalid.setTraceId(null);
+            assertThrows(ContractViolationException.class, () -> bus.publish(invalid, AckLevel.NONE));
+
+            EventEnvelope queued = bus.publish(fact(), AckLevel.NONE);
+            for (int i = 0; i < 500 && !store.existsByEventId(queued.getEventId()); i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(1L, store.findByEventId(queued.getEventId()).orElseThrow().getSequenceNumber());
+        }
+    }
+
+    @Test
+    @DisplayName("Events emitted by a registered reactor are appended, fanned out and awaited by ack=reacted")
+    void registeredReactor_emitsDerivedEvents() throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore();
+        EventReactor echo = reactor("echo", (event, eventStore) ->
+            "trace-batch".equals(event.getTraceId()) ? List.of(derivedFrom(event)) : List.of());
+        List<String> notified = new CopyOnWriteArrayList<>();
+        try (EventBusService bus = bus(store, PublishMode.DIRECT, List.of(echo), reactorProperties(64))) {
+            bus.subscribe(event -> notified.add(event.getTraceId()));
+
+            bus.publish(fact(), AckLevel.REACTED);
+
+            assertEquals(2, store.getLatestSequence());
+            assertEquals("trace-derived", store.queryBySequenceRange(2, 2, 1).get(0).getTraceId());
+            for (int i = 0; i < 500 && notified.size() < 2; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(List.of("trace-batch", "trace-derived"), notified, "derived events are fanned out too");
+        }
+    }
+
+    @Test
+    @DisplayName("Publishes feeding a stage above its admission watermark are refused with OverloadedException")
+    void saturatedStage_throttlesAdmission() throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        EventReactor slow = reactor("slow", (event, eventStore) -> {
+            entered.countDown();
+            awaitQuietly(release);
+            return List.of();
+        });
+        try (EventBusService bus = bus(store, PublishMode.DIRECT, List.of(slow),
+                new ReactorProperties(new ReactorProperties.Stage(4096, 1, 8, Duration.ZERO),
+                    Map.of("slow", new ReactorProperties.Stage(4, 1, 8, Duration.ZERO)), 0.5))) {
+            bus.publish(fact(), AckLevel.APPENDED);
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            bus.publish(fact(), AckLevel.APPENDED);
+            bus.publish(fact(), AckLevel.APPENDED);
+
+            assertThrows(OverloadedException.class, () -> bus.publish(fact(), AckLevel.APPENDED));
+            assertEquals(3, store.getLatestSequence(), "a throttled publish appends nothing");
+
+            release.countDown();
+            for (int i = 0; i < 500 && store.getLatestSequence() < 4; i++) {
+                try {
+                    bus.publish(fact(), AckLevel.REACTED);
+                } catch (OverloadedException ex) {
+                    Thread.sleep(10);
+                }
+            }
+            assertEquals(4, store.getLatestSequence(), "admission reopens once the stage drains");
+        }
+    }
+
+    @Test
+    @DisplayName("An atomic batch with one bad item appends nothing and reports every item")
+    void atomicBatch_rejectsAll() {
+        InMemoryEventStore store = new InMemoryEventStore();
+        try (EventBusService bus = bus(store, PublishMode.DIRECT)) {
+            EventEnvelope invalid = fact();
+            invalid.setTraceId(null);
+
+            List<BatchItemResult> results = bus.publishBatch(List.of(fact(), invalid, fact()), true);
+
+            assertEquals(List.of(BatchItemResult.Status.ABORTED, BatchItemResult.Status.REJECTED,
+                BatchItemResult.Status.ABORTED), statuses(results));
+            assertEquals("CONTRACT_VIOLATION", results.get(1).errorCode());
+            assertEquals(0, store.getLatestSequence());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(PublishMode.class)
+    @DisplayName("A best-effort batch skips duplicates and appends the rest contiguously in request order")
+    void bestEffortBatch_appendsValidItemsContiguously(PublishMode mode) {
+        InMemoryEventStore store = new InMemoryEventStore();
+        try (EventBusService bus = bus(store, mode)) {
+            EventEnvelope existing = bus.publish(fact());
+            EventEnvelope storeDuplicate = fact();
+            storeDuplicate.setEventId(existing.getEventId());
+            EventEnvelope first = fact();
+            EventEnvelope batchDuplicate = fact();
+            batchDuplicate.setEventId(first.getEventId());
+
+            List<BatchItemResult> results = bus.publishBatch(
+                List.of(first, storeDuplicate, batchDuplicate, fact()), false);
+
+            assertEquals(List.of(BatchItemResult.Status.ACCEPTED, BatchItemResult.Status.REJECTED,
+                BatchItemResult.Status.REJECTED, BatchItemResult.Status.ACCEPTED), statuses(results));
+            assertEquals("DUPLICATE_EVENT", results.get(1).errorCode());
+            assertEquals("DUPLICATE_EVENT", results.get(2).errorCode());
+            assertEquals(2L, results.get(0).sequenceNumber());
+            assertEquals(3L, results.get(3).sequenceNumber());
+            assertEquals(3, store.getLatestSequence());
+        }
+    }
+
+    @Test
+    @DisplayName("Batches over the configured limit are refused up front")
+    void oversizedBatch_isRefused() {
+        try (EventBusService bus = new EventBusService(new EventContractValidator(), new InMemoryEventStore(),
+                List.of(), new PublishProperties(PublishMode.DIRECT, 8, 4, 2), reactorProperties(4096),
+                subscriptionProperties(), jsonCache(new SimpleMeterRegistry()), ThreadMode.PLATFORM,
+                new SimpleMeterRegistry())) {
+            assertThrows(IllegalArgumentException.class, () -> bus.publishBatch(List.of(fact(), fact(), fact()), false));
+            assertThrows(IllegalArgumentException.class, () -> bus.publishBatch(List.of(), false));
+        }
+    }
+
+    @Test
+    @DisplayName("Fan-out encodes each event once however many subscribers write its JSON")
+    void fanout_encodesEachEventOnce() throws Exception {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        EventJsonCache jsonCache = jsonCache(meters);
+        InMemoryEventStore store = new InMemoryEventStore();
+        int subscribers = 8;
+        int events = 20;
+        CountDownLatch written = new CountDownLatch(subscribers * events);
+        try (EventBusService bus = new EventBusService(new EventContractValidator(), store, List.of(),
+                new PublishProperties(PublishMode.DIRECT, 64, 16, 100), reactorProperties(4096),
+                subscriptionProperties(), jsonCache, ThreadMode.PLATFORM, meters)) {
+            for (int i = 0; i < subscribers; i++) {
+                bus.subscribe(event -> {
+                    assertTrue(jsonCache.bytes(event).length > 0);
+                    written.countDown();
+                });
+            }
+            for (int i = 0; i < events; i++) {
+                bus.publish(fact());
+            }
+            assertTrue(written.await(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(events, meters.get("factbus.events.json.encoded").counter().count());
+        List<EventEnvelope> all = store.queryBySequenceRange(1, events, events);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        assertEquals(objectMapper.writeValueAsString(all), new String(jsonCache.array(all)),
+            "cached bytes are what the mapper would have written");
+    }
+
+    @Test
+    @DisplayName("Concurrent publishes reach a subscriber in sequence order, so resuming after the last one misses nothing")
+    void concurrentPublish_resumeAfterLastDeliveredHasNoGap() throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore();
+        int publishers = 8;
+        int perPublisher = 200;
+        int total = publishers * perPublisher;
+        try (EventBusService bus = new EventBusService(new EventContractValidator(), store, List.of(),
+                new PublishProperties(PublishMode.DIRECT, 64, 16, 100), reactorProperties(4096),
+                new SubscriptionProperties(total, SlowConsumerPolicy.DISCONNECT, Duration.ZERO, 64, 64),
+                jsonCache(new SimpleMeterRegistry()), ThreadMode.PLATFORM, new SimpleMeterRegistry())) {
+            // The first client drops its connection a quarter of the way in, like an SSE client would
+            List<Long> first = new CopyOnWriteArrayList<>();
+            AtomicBoolean connected = new AtomicBoolean(true);
+            String firstId = bus.subscribe(event -> {
+                if (connected.get()) {
+                    first.add(event.getSequenceNumber());
+                    connected.set(first.size() < total / 4);
+                }
+            });
+
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < publishers; p++) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < perPublisher; i++) {
+                        bus.publish(fact(), AckLevel.APPENDED);
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            for (int i = 0; i < 500 && connected.get(); i++) {
+                Thread.sleep(10);
+            }
+            bus.unsubscribe(firstId);
+
+            long lastSeen = first.get(first.size() - 1);
+            List<Long> resumed = new CopyOnWriteArrayList<>();
+            bus.subscribe(SubscriptionFilter.ALL, lastSeen + 1, event -> resumed.add(event.getSequenceNumber()),
+                () -> { });
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            for (int i = 0; i < 500 && first.size() + resumed.size() < total; i++) {
+                Thread.sleep(10);
+            }
+
+            List<Long> seen = new ArrayList<>(first);
+            seen.addAll(resumed);
+            assertEquals(LongStream.rangeClosed(1, total).boxed().toList(), seen,
+                "strictly increasing before the disconnect, and nothing missing after the resume");
+        }
+    }
+
+    @Test
+    @DisplayName("A change waiter fires once, for the first matching event after it registered")
+    void awaitChange_firesOnceForMatchingSubject() throws Exception {
+        try (EventBusService bus = bus(new InMemoryEventStore(), PublishMode.DIRECT)) {
+            SubscriptionFilter subject = new SubscriptionFilter(null, null, "order", "ORD-2", null);
+            List<Long> fired = new CopyOnWriteArrayList<>();
+            CountDownLatch woken = new CountDownLatch(1);
+            bus.awaitChange(subject, () -> {
+                fired.add(bus.latestSequence());
+                woken.countDown();
+            });
+            String cancelled = bus.awaitChange(subject, () -> fired.add(-1L));
+            bus.cancelChange(cancelled);
+
+            bus.publish(fact());
+            EventEnvelope other = fact();
+            other.getSubject().setId("ORD-2");
+            bus.publish(other);
+            EventEnvelope again = fact();
+            again.getSubject().setId("ORD-2");
+            bus.publish(again);
+
+            assertTrue(woken.await(10, TimeUnit.SECONDS));
+            assertEquals(List.of(2L), fired, "ack=reacted returns after fan-out, so nothing fires late");
+        }
+    }
+
+    @Test
+    @DisplayName("Virtual thread mode runs reactor stages and subscriber delivery on virtual threads")
+    void virtualThreadMode_reactsAndDeliversOnVirtualThreads() throws Exception {
+        List<String> reactorThreads = new CopyOnWriteArrayList<>();
+        EventReactor probe = reactor("probe", (event, eventStore) -> {
+            reactorThreads.add(describe(Thread.currentThread()));
+            return List.of();
+        });
+        List<String> subscriberThreads = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        try (EventBusService bus = bus(new InMemoryEventStore(), PublishMode.DIRECT, List.of(probe),
+                reactorProperties(4096), ThreadMode.VIRTUAL)) {
+            bus.subscribe(event -> {
+                subscriberThreads.add(describe(Thread.currentThread()));
+                delivered.countDown();
+            });
+            bus.publish(fact(), AckLevel.REACTED);
+            assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(List.of("virtual factbus-reactor-probe-0"), reactorThreads);
+        assertEquals(List.of("virtual factbus-subscriber-0"), subscriberThreads);
+    }
+
+    // ---- helpers ----
+
+    private EventBusService bus(EventStore store, PublishMode mode) {
+        return bus(store, mode, List.of(), reactorProperties(4096));
+    }
+
+    private EventBusService bus(EventStore store, PublishMode mode, List<EventReactor> reactors,
+                                ReactorProperties reactorProperties) {
+        return bus(store, mode, reactors, reactorProperties, ThreadMode.PLATFORM);
+    }
+
+    private EventBusService bus(EventStore store, PublishMode mode, List<EventReactor> reactors,
+                                ReactorProperties reactorProperties, ThreadMode threadMode) {
+        return new EventBusService(new EventContractValidator(), store, reactors,
+            new PublishProperties(mode, 128, 16, 100), reactorProperties, subscriptionProperties(),
+            jsonCache(new SimpleMeterRegistry()), threadMode, new SimpleMeterRegistry());
+    }
+
+    private String describe(Thread thread) {
+        return (thread.isVirtual() ? "virtual " : "platform ") + thread.getName();
+    }
+
+    private EventJsonCache jsonCache(MeterRegistry meters) {
+        return new EventJsonCache(new ObjectMapper().findAndRegisterModules(), 64, meters);
+    }
+
+    private SubscriptionProperties subscriptionProperties() {
+        return new SubscriptionProperties(64, SlowConsumerPolicy.DROP_OLDEST, Duration.ofMillis(10), 500, 64);
+    }
+
+    private ReactorProperties reactorProperties(int queueCapacity) {
+        return new ReactorProperties(new ReactorProperties.Stage(queueCapacity, 1, 8, Duration.ZERO), Map.of(), 0.5);
+    }
+
+    private static EventReactor reactor(String name, BiFunction<EventEnvelope, EventStore, List<EventEnvelope>> react) {
+        return new EventReactor() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public boolean handles(EventEnvelope event) {
+                return event.getEventCategory() == EventCategory.FACT_EVENT;
+            }
+
+            @Override
+            public List<EventEnvelope> react(EventEnvelope event, EventStore eventStore) {
+                return react.apply(event, eventStore);
+            }
+        };
+    }
+
+    private EventEnvelope derivedFrom(EventEnvelope source) {
+        EventEnvelope derived = fact();
+        derived.setTraceId("trace-derived");
+        derived.setCausationId(source.getEventId());
+        return derived;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<BatchItemResult.Status> statuses(List<BatchItemResult> results) {
+        return results.stream().map(BatchItemResult::status).toList();
+    }
+
+    private EventEnvelope fact() {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(EventCategory.FACT_EVENT);
+        e.setEventName("TestEvent");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId("trace-batch");
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.SYSTEM);
+        p.setId("test");
+        p.setVersion("test-v1");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId("ORD-1");
+        e.setSubject(s);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("facts", Map.of("key", "value"));
+        payload.put("observed_from", "api");
+        e.setPayload(payload);
+        return e;
+    }
+}
@@ -0,0 +1,72 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventJsonCacheTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final EventJsonCache cache = new EventJsonCache(new ObjectMapper().findAndRegisterModules(), 4, meters);
+
+    @Test
+    @DisplayName("Appended events are encoded once until a sequence capacity ahead evicts them")
+    void bytes_cachedBySequenceWithEviction() {
+        EventEnvelope first = event(1L);
+        byte[] bytes = cache.bytes(first);
+        assertSame(bytes, cache.bytes(first));
+        assertEquals(1, encoded());
+
+        for (long seq = 2; seq <= 4; seq++) {
+            cache.bytes(event(seq));
+        }
+        assertSame(bytes, cache.bytes(first), "slots of other sequences are untouched");
+
+        cache.bytes(event(5L));
+        assertNotSame(bytes, cache.bytes(first), "sequence 5 took sequence 1's slot");
+        assertEquals(6, encoded());
+    }
+
+    @Test
+    @DisplayName("Events without a sequence number are encoded every time, never cached")
+    void bytes_unsequencedNotCached() {
+        EventEnvelope pending = event(null);
+        cache.bytes(pending);
+        cache.bytes(pending);
+        assertEquals(2, encoded());
+    }
+
+    @Test
+    @DisplayName("Uncached arrays reuse cached bytes but never insert, so history reads keep the tail hot")
+    void arrayUncached_doesNotEvictTail() {
+        EventEnvelope tail = event(5L);
+        byte[] hot = cache.bytes(tail);
+
+        cache.arrayUncached(List.of(event(1L), tail));
+        cache.arrayUncached(List.of(event(1L)));
+        assertSame(hot, cache.bytes(tail), "sequence 1 shares sequence 5's slot but was not cached");
+        assertEquals(3, encoded());
+    }
+
+    // ---- helpers ----
+
+    private double encoded() {
+        return meters.get("factbus.events.json.encoded").counter().count();
+    }
+
+    private EventEnvelope event(Long sequence) {
+        EventEnvelope e = new EventEnvelope();
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(EventCategory.FACT_EVENT);
+        e.setSequenceNumber(sequence);
+        return e;
+    }
+}
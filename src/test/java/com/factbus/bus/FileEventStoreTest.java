@@ -0,0 +1,355 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.EventEnvelopeCodec;
+import com.factbus.contract.ProducerType;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileEventStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Appends survive a reopen with indexes rebuilt across rolled segments")
+    void reopen_recoversLogAndIndexes() throws IOException {
+        List<String> ids = new ArrayList<>();
+        try (FileEventStore store = open()) {
+            for (int i = 0; i < 50; i++) {
+                ids.add(store.append(fact("trace-" + (i % 3), "order", "ORD-" + (i % 5))).getEventId());
+            }
+        }
+        assertTrue(segmentFiles().size() > 1, "small segment size should force rolling");
+
+        try (FileEventStore store = open()) {
+            assertEquals(50, store.getLatestSequence());
+            assertEquals(37L, store.findByEventId(ids.get(36)).orElseThrow().getSequenceNumber());
+            assertTrue(store.existsByEventId(ids.get(0)));
+
+            List<EventEnvelope> range = store.queryBySequenceRange(10, 20, 5);
+            assertEquals(List.of(10L, 11L, 12L, 13L, 14L), sequences(range));
+
+            List<EventEnvelope> subject = store.query(Optional.of("trace-1"), Optional.empty(),
+                Optional.of("order"), Optional.of("ORD-1"), 100);
+            assertFalse(subject.isEmpty());
+            subject.forEach(e -> {
+                assertEquals("trace-1", e.getTraceId());
+                assertEquals("ORD-1", e.getSubject().getId());
+            });
+
+            assertEquals(List.of(42L, 45L, 48L), sequences(store.query(Optional.of("trace-2"), Optional.empty(),
+                Optional.empty(), Optional.empty(), 40, 3)));
+            assertEquals(List.of(48L, 49L, 50L), sequences(store.query(Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), 47, 10)), "scan skips whole segments before the cursor");
+
+            EventEnvelope next = store.append(fact("trace-0", "order", "ORD-0"));
+            assertEquals(51L, next.getSequenceNumber());
+        }
+    }
+
+    @Test
+    @DisplayName("A torn tail record is truncated on open")
+    void reopen_truncatesTornTail() throws IOException {
+        try (FileEventStore store = open()) {
+            for (int i = 0; i < 3; i++) {
+                store.append(fact("trace-torn", "order", "ORD-1"));
+            }
+        }
+        Path last = segmentFiles().get(segmentFiles().size() - 1);
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 7);
+        }
+
+        try (FileEventStore store = open()) {
+            assertEquals(2, store.getLatestSequence());
+            assertEquals(3L, store.append(fact("trace-torn", "order", "ORD-1")).getSequenceNumber());
+        }
+    }
+
+    @Test
+    @DisplayName("Grouped durability acknowledges concurrent appends after a shared force")
+    void groupedDurability_acknowledgesConcurrentAppends() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        int threads = 8;
+        int perThread = 25;
+        EventStoreProperties.File settings = new EventStoreProperties.File(dir, DataSize.ofMegabytes(1), 16,
+            new EventStoreProperties.Durability(DurabilityMode.GROUPED, Duration.ofMillis(2), DataSize.ofMegabytes(1)),
+            new EventStoreProperties.Compression(false, DataSize.ofKilobytes(64), 6), 0);
+        try (FileEventStore store = new FileEventStore(settings, registry)) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        store.append(fact("trace-group", "order", "ORD-1"));
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+
+            Timer latency = registry.get("factbus.store.commit.latency").timer();
+            assertEquals(threads * perThread, latency.count());
+        }
+
+        try (FileEventStore store = open()) {
+            assertEquals(threads * perThread, store.getLatestSequence());
+        }
+    }
+
+    @Test
+    @DisplayName("A grouped append is invisible to readers until its commit is durable")
+    void groupedDurability_publishesOnlyAfterCommit() throws Exception {
+        EventStoreProperties.File settings = new EventStoreProperties.File(dir, DataSize.ofMegabytes(1), 16,
+            new EventStoreProperties.Durability(DurabilityMode.GROUPED, Duration.ofMillis(500), DataSize.ofMegabytes(1)),
+            new EventStoreProperties.Compression(false, DataSize.ofKilobytes(64), 6), 0);
+        try (FileEventStore store = new FileEventStore(settings, new SimpleMeterRegistry())) {
+            EventEnvelope event = fact("trace-pending", "order", "ORD-1");
+            ExecutorService pool = Executors.newSingleThreadExecutor();
+            Future<EventEnvelope> appended = pool.submit(() -> store.append(event));
+            Thread.sleep(100);
+
+            assertFalse(appended.isDone(), "the commit window is still open");
+            assertEquals(0, store.getLatestSequence());
+            assertTrue(store.findByEventId(event.getEventId()).isEmpty());
+            assertTrue(store.queryBySequenceRange(1, 10, 10).isEmpty());
+            EventEnvelope duplicate = fact("trace-pending", "order", "ORD-1");
+            duplicate.setEventId(event.getEventId());
+            assertTrue(store.appendIfAbsent(duplicate).isEmpty(), "a pending event_id already counts as present");
+
+            assertEquals(1L, appended.get(10, TimeUnit.SECONDS).getSequenceNumber());
+            pool.shutdown();
+            assertEquals(1, store.getLatestSequence());
+            assertEquals(1L, store.findByEventId(event.getEventId()).orElseThrow().getSequenceNumber());
+        }
+    }
+
+    @Test
+    @DisplayName("Sealed segments are compressed in the background and stay readable across reopen")
+    void compression_sealedSegmentsReadTransparently() throws Exception {
+        List<String> ids = new ArrayList<>();
+        try (FileEventStore store = new FileEventStore(compressing(), new SimpleMeterRegistry())) {
+            for (int i = 0; i < 80; i++) {
+                ids.add(store.append(fact("trace-" + (i % 3), "order", "ORD-" + (i % 5))).getEventId());
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (compressedFiles() < segmentFiles().size() - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(segmentFiles().size() - 1, compressedFiles(), "every sealed segment should be compressed");
+
+            assertEquals(List.of(5L, 6L, 7L), sequences(store.queryBySequenceRange(5, 7, 10)));
+            assertEquals(12L, store.findByEventId(ids.get(11)).orElseThrow().getSequenceNumber());
+        }
+
+        try (FileEventStore store = new FileEventStore(compressing(), new SimpleMeterRegistry())) {
+            assertEquals(80, store.getLatestSequence());
+            assertEquals(sequenceRange(1, 80), sequences(store.queryBySequenceRange(1, 80, 100)));
+            assertEquals(40L, store.findByEventId(ids.get(39)).orElseThrow().getSequenceNumber());
+            assertEquals(81L, store.append(fact("trace-0", "order", "ORD-0")).getSequenceNumber());
+        }
+    }
+
+    @Test
+    @DisplayName("A small range read on a compressed segment inflates only the blocks it covers")
+    void compressedRangeRead_inflatesOnlyCoveringBlocks() throws IOException {
+        LogSegment source = LogSegment.open(dir.resolve("source.segment"), 1, 4, (seg, seq, body) -> { });
+        for (long seq = 1; seq <= 500; seq++) {
+            source.append(seq, ("record-" + seq + "-padding-padding-padding").getBytes());
+        }
+        try (CompressedSegment compressed = CompressedSegment.compress(
+                source, dir.resolve("source" + CompressedSegment.SUFFIX), 512, 6)) {
+            source.close();
+            long before = compressed.inflatedBlocks();
+            List<Long> visited = new ArrayList<>();
+            compressed.scan(100, 104, (seg, seq, body) -> visited.add(seq));
+
+            assertEquals(List.of(100L, 101L, 102L, 103L, 104L), visited);
+            assertTrue(compressed.inflatedBlocks() - before <= 2,
+                "inflated " + (compressed.inflatedBlocks() - before) + " blocks for a five-record range");
+        }
+    }
+
+    @Test
+    @DisplayName("Reading an active segment after every append remaps it only as it doubles; close trims the file")
+    void activeSegmentReads_remapGeometrically() throws IOException {
+        Path file = dir.resolve("active.segment");
+        LogSegment segment = LogSegment.open(file, 1, 4, (seg, seq, body) -> { });
+        for (long seq = 1; seq <= 2000; seq++) {
+            byte[] body = ("record-" + seq).getBytes();
+            segment.append(seq, body);
+            assertArrayEquals(body, segment.read(seq));
+        }
+        long committed = segment.size();
+        assertTrue(segment.mappings() <= 20, segment.mappings() + " mappings for 2000 appends");
+        segment.close();
+        assertEquals(committed, Files.size(file), "the zero tail past the last record is cut off");
+
+        LogSegment reopened = LogSegment.open(file, 1, 4, (seg, seq, body) -> { });
+        assertEquals(2000, reopened.lastSequence());
+        assertArrayEquals("record-1234".getBytes(), reopened.read(1234));
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("A compressed record failing its CRC, or a block shorter than indexed, fails the read instead of returning bad bytes")
+    void compressedSegment_rejectsCorruptRecordsAndTruncatedBlocks() throws IOException {
+        byte[] body = "record-1".getBytes();
+        ByteBuffer bad = ByteBuffer.allocate(LogSegment.HEADER_BYTES + body.length);
+        bad.putInt(body.length).putInt(LogSegment.crc32(body) ^ 1).putLong(1).put(body);
+        Path corrupt = writeCompressed("corrupt", bad.array(), bad.capacity());
+
+        assertThrows(IllegalStateException.class, () -> CompressedSegment.open(corrupt, 1,
+            new EventEnvelopeCodec.Dictionary(), (seg, seq, b) -> { }), "the recovery visit checks every record");
+        try (CompressedSegment segment = CompressedSegment.open(corrupt, 1, new EventEnvelopeCodec.Dictionary(), null)) {
+            assertThrows(IllegalStateException.class, () -> segment.read(1));
+        }
+
+        ByteBuffer good = ByteBuffer.allocate(LogSegment.HEADER_BYTES + body.length);
+        good.putInt(body.length).putInt(LogSegment.crc32(body)).putLong(1).put(body);
+        Path truncated = writeCompressed("truncated", good.array(), good.capacity() + LogSegment.HEADER_BYTES);
+        assertThrows(IllegalStateException.class, () -> CompressedSegment.open(truncated, 1,
+            new EventEnvelopeCodec.Dictionary(), null), "a short block must not read as zero-filled records");
+    }
+
+    @Test
+    @DisplayName("Parallel recovery rebuilds the same indexes as a single-threaded one and reports progress")
+    void parallelRecovery_matchesSequentialRecovery() throws IOException {
+        List<String> ids = new ArrayList<>();
+        try (FileEventStore store = open()) {
+            for (int i = 0; i < 200; i++) {
+                ids.add(store.append(fact("trace-" + (i % 7), "order", "ORD-" + (i % 11))).getEventId());
+            }
+        }
+        assertTrue(segmentFiles().size() > 4, "expected many segments");
+
+        List<List<Long>> results = new ArrayList<>();
+        for (int parallelism : new int[] {1, 4}) {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            try (FileEventStore store = new FileEventStore(recovering(parallelism), registry)) {
+                assertEquals(1.0, registry.get("factbus.store.recovery.progress").gauge().value());
+                assertEquals(200.0, registry.get("factbus.store.recovery.events").gauge().value());
+                assertEquals(150L, store.findByEventId(ids.get(149)).orElseThrow().getSequenceNumber());
+                results.add(sequences(store.query(Optional.of("trace-3"), Optional.of(EventCategory.FACT_EVENT),
+                    Optional.of("order"), Optional.of("ORD-3"), 1000)));
+            }
+        }
+        assertFalse(results.get(0).isEmpty());
+        assertEquals(results.get(0), results.get(1));
+    }
+
+    // ---- helpers ----
+
+    /** A one-block compressed segment whose index entry claims {@code rawLength} inflated bytes. */
+    private Path writeCompressed(String name, byte[] raw, int rawLength) throws IOException {
+        Deflater deflater = new Deflater();
+        deflater.setInput(raw);
+        deflater.finish();
+        byte[] block = new byte[raw.length + 64];
+        int compressedLength = deflater.deflate(block);
+        deflater.end();
+        ByteBuffer file = ByteBuffer.allocate(compressedLength + 4 + 24 + 12);
+        file.put(block, 0, compressedLength)
+            .putInt(1)
+            .putLong(1).putLong(0).putInt(compressedLength).putInt(rawLength)
+            .putLong(compressedLength).putInt(CompressedSegment.MAGIC);
+        Path path = dir.resolve(name + CompressedSegment.SUFFIX);
+        Files.write(path, file.array());
+        return path;
+    }
+
+    private EventStoreProperties.File recovering(int parallelism) {
+        return new EventStoreProperties.File(dir, DataSize.ofBytes(4096), 4,
+            new EventStoreProperties.Durability(DurabilityMode.PER_EVENT, Duration.ZERO, DataSize.ofBytes(0)),
+            new EventStoreProperties.Compression(false, DataSize.ofKilobytes(64), 6), parallelism);
+    }
+
+    private EventStoreProperties.File compressing() {
+        return new EventStoreProperties.File(dir, DataSize.ofBytes(4096), 4,
+            new EventStoreProperties.Durability(DurabilityMode.PER_EVENT, Duration.ZERO, DataSize.ofBytes(0)),
+            new EventStoreProperties.Compression(true, DataSize.ofBytes(1024), 6), 0);
+    }
+
+    private long compressedFiles() throws IOException {
+        return segmentFiles().stream()
+            .filter(p -> p.getFileName().toString().endsWith(CompressedSegment.SUFFIX))
+            .count();
+    }
+
+    private List<Long> sequenceRange(long from, long to) {
+        List<Long> expected = new ArrayList<>();
+        for (long seq = from; seq <= to; seq++) {
+            expected.add(seq);
+        }
+        return expected;
+    }
+
+    private FileEventStore open() {
+        return new FileEventStore(dir, 4096, 4);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private List<Long> sequences(List<EventEnvelope> events) {
+        return events.stream().map(EventEnvelope::getSequenceNumber).toList();
+    }
+
+    private EventEnvelope fact(String traceId, String subjectType, String subjectId) {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(EventCategory.FACT_EVENT);
+        e.setEventName("TestEvent");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId(traceId);
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.SYSTEM);
+        p.setId("test");
+        p.setVersion("test-v1");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType(subjectType);
+        s.setId(subjectId);
+        e.setSubject(s);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("facts", Map.of("key", "value"));
+        payload.put("observed_from", "api");
+        e.setPayload(payload);
+        return e;
+    }
+}
@@ -0,0 +1,303 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.ProducerType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryEventStoreTest {
+
+    private InMemoryEventStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryEventStore();
+    }
+
+    @Test
+    @DisplayName("event_id index answers exists/find without scanning")
+    void eventIdIndex_findsAppendedEvents() {
+        EventEnvelope first = store.append(fact("trace-a", "order", "ORD-1"));
+        EventEnvelope second = store.append(fact("trace-a", "order", "ORD-2"));
+
+        assertTrue(store.existsByEventId(first.getEventId()));
+        assertTrue(store.existsByEventId(second.getEventId()));
+        assertFalse(store.existsByEventId(UUID.randomUUID().toString()));
+
+        Optional<EventEnvelope> found = store.findByEventId(second.getEventId());
+        assertTrue(found.isPresent());
+        assertSame(second, found.get());
+        assertEquals(2L, found.get().getSequenceNumber());
+        assertTrue(store.findByEventId(UUID.randomUUID().toString()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Indexed query intersects trace, subject and category filters in sequence order")
+    void query_intersectsSecondaryIndexes() {
+        store.append(fact("trace-a", "order", "ORD-1"));
+        store.append(envelope("trace-a", EventCategory.OBSERVATION_EVENT, "order", "ORD-1"));
+        store.append(fact("trace-b", "order", "ORD-1"));
+        store.append(fact("trace-a", "order", "ORD-2"));
+        store.append(fact("trace-a", "order", "ORD-1"));
+
+        List<EventEnvelope> byTraceAndSubject = store.query(
+            Optional.of("trace-a"), Optional.empty(),
+            Optional.of("order"), Optional.of("ORD-1"), 10);
+        assertEquals(List.of(1L, 2L, 5L), sequences(byTraceAndSubject));
+
+        List<EventEnvelope> factsForSubject = store.query(
+            Optional.empty(), Optional.of(EventCategory.FACT_EVENT),
+            Optional.of("order"), Optional.of("ORD-1"), 10);
+        assertEquals(List.of(1L, 3L, 5L), sequences(factsForSubject));
+
+        List<EventEnvelope> limited = store.query(
+            Optional.of("trace-a"), Optional.of(EventCategory.FACT_EVENT),
+            Optional.empty(), Optional.empty(), 2);
+        assertEquals(List.of(1L, 4L), sequences(limited));
+
+        List<EventEnvelope> subjectTypeOnly = store.query(
+            Optional.empty(), Optional.empty(),
+            Optional.of("order"), Optional.empty(), 10);
+        assertEquals(5, subjectTypeOnly.size());
+
+        assertTrue(store.query(Optional.of("trace-unknown"), Optional.of(EventCategory.FACT_EVENT),
+            Optional.empty(), Optional.empty(), 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Chunked log keeps events addressable across chunk boundaries")
+    void chunkedLog_spansMultipleChunks() {
+        int total = ChunkedLog.CHUNK_SIZE * 2 + 3;
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            ids.add(store.append(fact("trace-chunk", "order", "ORD-" + (i % 7))).getEventId());
+        }
+
+        assertEquals(total, store.getLatestSequence());
+        for (int i = 0; i < total; i += ChunkedLog.CHUNK_SIZE / 2) {
+            assertEquals(i + 1L, store.findByEventId(ids.get(i)).orElseThrow().getSequenceNumber());
+        }
+        assertEquals(total, store.query(Optional.of("trace-chunk"), Optional.empty(),
+            Optional.empty(), Optional.empty(), total + 10).size());
+    }
+
+    @Test
+    @DisplayName("Sequence range reads jump straight to the requested window")
+    void queryBySequenceRange_returnsRequestedWindow() {
+        for (int i = 0; i < 20; i++) {
+            store.append(fact("trace-range", "order", "ORD-1"));
+        }
+
+        assertEquals(List.of(5L, 6L, 7L), sequences(store.queryBySequenceRange(5, 7, 100)));
+        assertEquals(List.of(5L, 6L), sequences(store.queryBySequenceRange(5, 7, 2)));
+        assertEquals(List.of(1L, 2L), sequences(store.queryBySequenceRange(-3, 2, 100)));
+        assertEquals(List.of(19L, 20L), sequences(store.queryBySequenceRange(19, 500, 100)));
+        assertTrue(store.queryBySequenceRange(21, 30, 100).isEmpty());
+        assertTrue(store.queryBySequenceRange(7, 5, 100).isEmpty());
+        assertTrue(store.queryBySequenceRange(1, 20, 0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Concurrent appendIfAbsent stores each event_id once and keeps log order equal to sequence order")
+    void appendIfAbsent_concurrentStress() throws Exception {
+        int threads = 8;
+        int distinctIds = 2_000;
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < distinctIds; i++) {
+            ids.add(UUID.randomUUID().toString());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger appended = new AtomicInteger();
+        Set<String> winners = ConcurrentHashMap.newKeySet();
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        // Reader: every published prefix must be gap-free and in sequence order
+        Future<?> reader = pool.submit(() -> {
+            while (writing.get()) {
+                long latest = store.getLatestSequence();
+                List<EventEnvelope> prefix = store.queryBySequenceRange(1, latest, Integer.MAX_VALUE);
+                assertEquals(latest, prefix.size());
+                for (int i = 0; i < prefix.size(); i++) {
+                    assertEquals(i + 1L, prefix.get(i).getSequenceNumber());
+                }
+            }
+            return null;
+        });
+
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            writers.add(pool.submit(() -> {
+                start.await();
+                // Every writer races on every id
+                for (String id : ids) {
+                    EventEnvelope e = fact("trace-stress", "order", "ORD-1");
+                    e.setEventId(id);
+                    store.appendIfAbsent(e).ifPresent(won -> {
+                        appended.incrementAndGet();
+                        assertTrue(winners.add(won.getEventId()), "event_id appended twice");
+                    });
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get(60, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        reader.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(distinctIds, appended.get());
+        assertEquals(distinctIds, store.getLatestSequence());
+        List<EventEnvelope> log = store.queryBySequenceRange(1, distinctIds, distinctIds);
+        for (int i = 0; i < log.size(); i++) {
+            assertEquals(i + 1L, log.get(i).getSequenceNumber());
+            assertEquals(i + 1L, store.findByEventId(log.get(i).getEventId()).orElseThrow().getSequenceNumber());
+        }
+        assertEquals(distinctIds, sequences(store.query(Optional.of("trace-stress"), Optional.empty(),
+            Optional.empty(), Optional.empty(), Integer.MAX_VALUE)).size());
+    }
+
+    @Test
+    @DisplayName("after_sequence pages through indexed and unindexed queries without gaps or repeats")
+    void query_pagesFromCursor() {
+        for (int i = 0; i < 30; i++) {
+            store.append(fact("trace-" + (i % 3), "order", "ORD-" + (i % 2)));
+        }
+
+        List<Long> indexed = new ArrayList<>();
+        long cursor = 0;
+        for (List<EventEnvelope> page; !(page = store.query(Optional.of("trace-1"), Optional.empty(),
+                Optional.empty(), Optional.empty(), cursor, 4)).isEmpty(); ) {
+            indexed.addAll(sequences(page));
+            cursor = page.get(page.size() - 1).getSequenceNumber();
+        }
+        assertEquals(List.of(2L, 5L, 8L, 11L, 14L, 17L, 20L, 23L, 26L, 29L), indexed);
+
+        assertEquals(List.of(26L, 27L, 28L), sequences(store.query(Optional.empty(), Optional.empty(),
+            Optional.empty(), Optional.empty(), 25, 3)), "no index: scan starts at the cursor");
+        assertTrue(store.query(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), 30, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("An append that fails after taking its sequence still publishes it, so later appends proceed")
+    void failedAppend_doesNotBlockLaterAppends() throws Exception {
+        store.append(fact("trace-a", "order", "ORD-1"));
+        assertThrows(IllegalStateException.class, () -> store.append(failingIndex()));
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<EventEnvelope> next = pool.submit(() -> store.append(fact("trace-a", "order", "ORD-1")));
+        assertEquals(3L, next.get(10, TimeUnit.SECONDS).getSequenceNumber());
+        pool.shutdown();
+        assertEquals(3, store.getLatestSequence());
+        assertEquals(List.of(1L, 2L, 3L), sequences(store.queryBySequenceRange(1, 10, 10)));
+    }
+
+    @Test
+    @DisplayName("The event_id of an append that failed before indexing is released, so the append can be retried")
+    void failedAppend_canBeRetried() {
+        EventEnvelope single = failingSequence();
+        assertThrows(IllegalStateException.class, () -> store.appendIfAbsent(single));
+        EventEnvelope batched = failingSequence();
+        EventEnvelope sibling = fact("trace-a", "order", "ORD-1");
+        assertThrows(IllegalStateException.class, () -> store.appendAllIfAbsent(List.of(sibling, batched)));
+
+        EventEnvelope retry = fact("trace-a", "order", "ORD-1");
+        retry.setEventId(single.getEventId());
+        assertEquals(4L, store.appendIfAbsent(retry).orElseThrow().getSequenceNumber());
+        EventEnvelope siblingRetry = fact("trace-a", "order", "ORD-1");
+        siblingRetry.setEventId(sibling.getEventId());
+        EventEnvelope batchedRetry = fact("trace-a", "order", "ORD-1");
+        batchedRetry.setEventId(batched.getEventId());
+        assertEquals(List.of(5L, 6L), store.appendAllIfAbsent(List.of(siblingRetry, batchedRetry)).stream()
+            .map(appended -> appended.orElseThrow().getSequenceNumber()).toList());
+        assertEquals(List.of(4L, 5L, 6L), sequences(store.queryBySequenceRange(1, 10, 10)), "failed slots are holes");
+    }
+
+    // ---- helpers ----
+
+    private List<Long> sequences(List<EventEnvelope> events) {
+        return events.stream().map(EventEnvelope::getSequenceNumber).toList();
+    }
+
+
+    /** An event whose indexing throws once the store has assigned its sequence. */
+    private EventEnvelope failingIndex() {
+        EventEnvelope e = new EventEnvelope() {
+            @Override
+            public String getTraceId() {
+                throw new IllegalStateException("index failure");
+            }
+        };
+        e.setEventId(UUID.randomUUID().toString());
+        return e;
+    }
+
+    /** An event that cannot take the sequence the store assigns it. */
+    private EventEnvelope failingSequence() {
+        EventEnvelope e = new EventEnvelope() {
+            @Override
+            public void setSequenceNumber(Long sequenceNumber) {
+                if (sequenceNumber != null) {
+                    throw new IllegalStateException("write failure");
+                }
+                super.setSequenceNumber(null);
+            }
+        };
+        e.setEventId(UUID.randomUUID().toString());
+        return e;
+    }
+
+    private EventEnvelope fact(String traceId, String subjectType, String subjectId) {
+        return envelope(traceId, EventCategory.FACT_EVENT, subjectType, subjectId);
+    }
+
+    private EventEnvelope envelope(String traceId, EventCategory category,
+                                   String subjectType, String subjectId) {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(category);
+        e.setEventName("TestEvent");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId(traceId);
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.SYSTEM);
+        p.setId("test");
+        p.setVersion("test-v1");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType(subjectType);
+        s.setId(subjectId);
+        e.setSubject(s);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("facts", Map.of("key", "value"));
+        payload.put("observed_from", "api");
+        e.setPayload(payload);
+        return e;
+    }
+}
@@ -0,0 +1,102 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.ProducerType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapEventStoreTest {
+
+    @Test
+    @DisplayName("Events spread over several arenas decode back for point, indexed and range reads")
+    void reads_decodeAcrossArenas() {
+        OffHeapEventStore store = new OffHeapEventStore(2048);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(store.append(fact("trace-" + (i % 4), "ORD-" + (i % 3), i)).getEventId());
+        }
+        assertTrue(store.reservedBytes() > 2048, "small arenas should force several allocations");
+        assertEquals(100, store.getLatestSequence());
+
+        EventEnvelope found = store.findByEventId(ids.get(41)).orElseThrow();
+        assertEquals(42L, found.getSequenceNumber());
+        assertEquals(41, ((Map<?, ?>) found.getPayload().get("facts")).get("n"));
+
+        List<EventEnvelope> range = store.queryBySequenceRange(98, 200, 10);
+        assertEquals(List.of(98L, 99L, 100L), range.stream().map(EventEnvelope::getSequenceNumber).toList());
+
+        List<EventEnvelope> matched = store.query(Optional.of("trace-1"), Optional.empty(),
+            Optional.of("order"), Optional.of("ORD-2"), 100);
+        assertFalse(matched.isEmpty());
+        matched.forEach(e -> {
+            assertEquals("trace-1", e.getTraceId());
+            assertEquals("ORD-2", e.getSubject().getId());
+        });
+
+        List<EventEnvelope> scanned = store.query(Optional.empty(), Optional.empty(),
+            Optional.empty(), Optional.empty(), 5);
+        assertEquals(5, scanned.size());
+    }
+
+    @Test
+    @DisplayName("Reads return detached copies; mutating one does not change the stored event")
+    void reads_returnDetachedCopies() {
+        OffHeapEventStore store = new OffHeapEventStore(1 << 16);
+        String id = store.append(fact("trace-1", "ORD-1", 7)).getEventId();
+
+        store.findByEventId(id).orElseThrow().getPayload().put("observed_from", "tampered");
+
+        assertEquals("api", store.findByEventId(id).orElseThrow().getPayload().get("observed_from"));
+    }
+
+    @Test
+    @DisplayName("An event larger than an arena is rejected without consuming a sequence")
+    void append_rejectsOversizedEvent() {
+        OffHeapEventStore store = new OffHeapEventStore(256);
+        EventEnvelope big = fact("trace-1", "ORD-1", 1);
+        big.getPayload().put("blob", "x".repeat(1000));
+
+        assertThrows(IllegalArgumentException.class, () -> store.append(big));
+        assertEquals(0, store.getLatestSequence());
+        assertNull(big.getSequenceNumber());
+
+        assertEquals(1L, store.append(fact("trace-1", "ORD-1", 2)).getSequenceNumber());
+    }
+
+    // ---- helpers ----
+
+    private EventEnvelope fact(String traceId, String subjectId, int n) {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(EventCategory.FACT_EVENT);
+        e.setEventName("TestEvent");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId(traceId);
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.SYSTEM);
+        p.setId("test");
+        p.setVersion("test-v1");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId(subjectId);
+        e.setSubject(s);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("facts", Map.of("n", n));
+        payload.put("observed_from", "api");
+        e.setPayload(payload);
+        return e;
+    }
+}
@@ -0,0 +1,216 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.ProducerType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedEventStoreTest {
+
+    @Test
+    @DisplayName("Concurrent appends get a dense global sequence readable in order across partitions")
+    void concurrentAppends_yieldDenseGlobalSequence() throws Exception {
+        PartitionedEventStore store = new PartitionedEventStore(4);
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    store.append(fact("trace-" + thread, "ORD-" + (i % 37)));
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int total = threads * perThread;
+        assertEquals(total, store.getLatestSequence());
+        List<Long> all = sequences(store.queryBySequenceRange(1, total, total));
+        assertEquals(LongStream.rangeClosed(1, total).boxed().toList(), all);
+
+        assertEquals(List.of(1000L, 1001L, 1002L), sequences(store.queryBySequenceRange(1000, 1002, 10)));
+    }
+
+    @Test
+    @DisplayName("Subject queries stay in one partition; other queries merge partitions by sequence")
+    void queries_routeAndMerge() {
+        PartitionedEventStore store = new PartitionedEventStore(8);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ids.add(store.append(fact("trace-" + (i % 5), "ORD-" + (i % 13))).getEventId());
+        }
+
+        List<EventEnvelope> subject = store.query(Optional.empty(), Optional.empty(),
+            Optional.of("order"), Optional.of("ORD-4"), 100);
+        assertEquals(LongStream.iterate(5, s -> s <= 200, s -> s + 13).boxed().toList(), sequences(subject));
+
+        List<EventEnvelope> trace = store.query(Optional.of("trace-2"), Optional.empty(),
+            Optional.empty(), Optional.empty(), 10);
+        assertEquals(LongStream.iterate(3, s -> s + 5).limit(10).boxed().toList(), sequences(trace));
+
+        List<EventEnvelope> firstFive = store.query(Optional.empty(), Optional.of(EventCategory.FACT_EVENT),
+            Optional.empty(), Optional.empty(), 5);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sequences(firstFive));
+
+        List<EventEnvelope> traceAfter = store.query(Optional.of("trace-2"), Optional.empty(),
+            Optional.empty(), Optional.empty(), 100, 3);
+        assertEquals(List.of(103L, 108L, 113L), sequences(traceAfter), "cursor applies to the merged order");
+        List<EventEnvelope> subjectAfter = store.query(Optional.empty(), Optional.empty(),
+            Optional.of("order"), Optional.of("ORD-4"), 150, 100);
+        assertEquals(List.of(161L, 174L, 187L, 200L), sequences(subjectAfter));
+
+        assertEquals(120L, store.findByEventId(ids.get(119)).orElseThrow().getSequenceNumber());
+        assertTrue(store.existsByEventId(ids.get(0)));
+        assertFalse(store.existsByEventId("missing"));
+
+        EventEnvelope duplicate = fact("trace-9", "ORD-99");
+        duplicate.setEventId(ids.get(7));
+        assertTrue(store.appendIfAbsent(duplicate).isEmpty(), "event_id is deduplicated across partitions");
+        assertEquals(200, store.getLatestSequence());
+    }
+
+    @Test
+    @DisplayName("A batch spanning partitions gets a contiguous sequence range despite concurrent appends")
+    void batchAppend_isContiguousAcrossPartitions() throws Exception {
+        PartitionedEventStore store = new PartitionedEventStore(4);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        AtomicBoolean stop = new AtomicBoolean();
+        Future<?> background = pool.submit(() -> {
+            while (!stop.get()) {
+                store.append(fact("trace-bg", "ORD-" + ThreadLocalRandom.current().nextInt(50)));
+            }
+        });
+        for (int round = 0; round < 200; round++) {
+            List<EventEnvelope> batch = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                batch.add(fact("trace-batch", "ORD-" + i));
+            }
+            List<Long> appended = store.appendAllIfAbsent(batch).stream()
+                .map(e -> e.orElseThrow().getSequenceNumber()).toList();
+            long first = appended.get(0);
+            assertEquals(LongStream.range(first, first + 8).boxed().toList(), appended);
+        }
+        stop.set(true);
+        background.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        long total = store.getLatestSequence();
+        assertEquals(LongStream.rangeClosed(1, total).boxed().toList(),
+            sequences(store.queryBySequenceRange(1, total, (int) total)));
+    }
+
+    @Test
+    @DisplayName("An append that fails inside its partition still publishes its sequence, so later appends proceed")
+    void failedAppend_doesNotBlockLaterAppends() throws Exception {
+        PartitionedEventStore store = new PartitionedEventStore(4);
+        store.append(fact("trace-a", "ORD-1"));
+        EventEnvelope failing = new EventEnvelope() {
+            @Override
+            public String getTraceId() {
+                throw new IllegalStateException("index failure");
+            }
+        };
+        failing.setEventId(UUID.randomUUID().toString());
+        assertThrows(IllegalStateException.class, () -> store.append(failing));
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<EventEnvelope> next = pool.submit(() -> store.append(fact("trace-a", "ORD-2")));
+        assertEquals(3L, next.get(10, TimeUnit.SECONDS).getSequenceNumber());
+        pool.shutdown();
+        assertEquals(3, store.getLatestSequence());
+    }
+
+    @Test
+    @DisplayName("The claim of an append that never reached its partition is released, so the append can be retried")
+    void failedAppend_canBeRetried() {
+        PartitionedEventStore store = new PartitionedEventStore(4);
+        EventEnvelope single = failingSequence("ORD-1");
+        assertThrows(IllegalStateException.class, () -> store.appendIfAbsent(single));
+        EventEnvelope sibling = fact("trace-a", "ORD-2");
+        EventEnvelope batched = failingSequence("ORD-3");
+        assertThrows(IllegalStateException.class, () -> store.appendAllIfAbsent(List.of(sibling, batched)));
+        assertFalse(store.existsByEventId(single.getEventId()));
+
+        EventEnvelope retry = fact("trace-a", "ORD-1");
+        retry.setEventId(single.getEventId());
+        assertEquals(4L, store.appendIfAbsent(retry).orElseThrow().getSequenceNumber());
+        EventEnvelope batchedRetry = fact("trace-a", "ORD-3");
+        batchedRetry.setEventId(batched.getEventId());
+        EventEnvelope siblingCopy = fact("trace-a", "ORD-2");
+        siblingCopy.setEventId(sibling.getEventId());
+        List<Optional<EventEnvelope>> appended = store.appendAllIfAbsent(List.of(batchedRetry, siblingCopy));
+        assertEquals(5L, appended.get(0).orElseThrow().getSequenceNumber());
+        assertTrue(appended.get(1).isEmpty(), "the sibling reached its partition, so its copy is a duplicate");
+        assertEquals(List.of(2L, 4L, 5L), sequences(store.queryBySequenceRange(1, 10, 10)));
+        assertEquals(4L, store.findByEventId(single.getEventId()).orElseThrow().getSequenceNumber());
+    }
+
+    // ---- helpers ----
+
+    private List<Long> sequences(List<EventEnvelope> events) {
+        return events.stream().map(EventEnvelope::getSequenceNumber).toList();
+    }
+
+    /** An event that cannot take the sequence the store assigns it. */
+    private EventEnvelope failingSequence(String subjectId) {
+        EventEnvelope e = new EventEnvelope() {
+            @Override
+            public void setSequenceNumber(Long sequenceNumber) {
+                throw new IllegalStateException("write failure");
+            }
+        };
+        e.setEventId(UUID.randomUUID().toString());
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId(subjectId);
+        e.setSubject(s);
+        return e;
+    }
+
+    private EventEnvelope fact(String traceId, String subjectId) {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(EventCategory.FACT_EVENT);
+        e.setEventName("TestEvent");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId(traceId);
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.SYSTEM);
+        p.setId("test");
+        p.setVersion("test-v1");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId(subjectId);
+        e.setSubject(s);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("facts", Map.of("key", "value"));
+        payload.put("observed_from", "api");
+        e.setPayload(payload);
+        return e;
+    }
+}
@@ -0,0 +1,196 @@
+package com.factbus.bus;
+
+import com.factbus.api.DuplicateEventException;
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.ProducerType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublishSequencerTest {
+
+    @Test
+    @DisplayName("Producers wrapping a small ring get every event appended once, handed to the reactor in sequence order")
+    void concurrentSubmits_appendAndReactInOrder() throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore();
+        List<Long> reacted = new ArrayList<>();
+        Map<String, Boolean> reactorThreads = new ConcurrentHashMap<>();
+        int threads = 4;
+        int perThread = 250;
+
+        try (PublishSequencer sequencer = new PublishSequencer(16, 8, store, event -> {
+            reacted.add(event.getSequenceNumber());
+            reactorThreads.put(Thread.currentThread().getName(), true);
+            return CompletableFuture.completedFuture(null);
+        })) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<?>> producers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                producers.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        EventEnvelope appended = sequencer.submit(fact()).join().event();
+                        assertNotNull(appended.getSequenceNumber());
+                    }
+                }));
+            }
+            for (Future<?> producer : producers) {
+                producer.get(30, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+        }
+
+        int total = threads * perThread;
+        assertEquals(total, store.getLatestSequence());
+        List<Long> expected = new ArrayList<>();
+        for (long seq = 1; seq <= total; seq++) {
+            expected.add(seq);
+        }
+        assertEquals(expected, reacted);
+        assertEquals(Map.of("factbus-sequencer", true), reactorThreads);
+    }
+
+    @Test
+    @DisplayName("A duplicate event_id completes its future with DuplicateEventException")
+    void duplicateSubmit_failsFuture() {
+        InMemoryEventStore store = new InMemoryEventStore();
+        try (PublishSequencer sequencer = new PublishSequencer(8, 4, store, event -> CompletableFuture.completedFuture(null))) {
+            EventEnvelope first = fact();
+            EventEnvelope second = fact();
+            second.setEventId(first.getEventId());
+
+            CompletableFuture<PublishSequencer.Appended> ok = sequencer.submit(first);
+            CompletableFuture<PublishSequencer.Appended> duplicate = sequencer.submit(second);
+
+            assertEquals(1L, ok.join().event().getSequenceNumber());
+            CompletionException ex = assertThrows(CompletionException.class, duplicate::join);
+            assertInstanceOf(DuplicateEventException.class, ex.getCause());
+            assertEquals(1, store.getLatestSequence());
+        }
+    }
+
+    @Test
+    @DisplayName("A group larger than max batch is appended in one store call, contiguous despite other appenders")
+    void groupsRacingSingles_stayContiguous() throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore();
+        int threads = 4;
+        int rounds = 100;
+        int groupSize = 10;
+        List<List<EventEnvelope>> groups = new CopyOnWriteArrayList<>();
+        try (PublishSequencer sequencer = new PublishSequencer(16, 4, store,
+                event -> CompletableFuture.completedFuture(null))) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+            AtomicBoolean producing = new AtomicBoolean(true);
+            // Reactor stages append derived events to the store directly, beside the sequencer
+            Future<?> derived = pool.submit(() -> {
+                while (producing.get()) {
+                    store.append(fact());
+                }
+            });
+            List<Future<?>> producers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                producers.add(pool.submit(() -> {
+                    for (int i = 0; i < rounds; i++) {
+                        List<EventEnvelope> group = new ArrayList<>();
+                        for (int j = 0; j < groupSize; j++) {
+                            group.add(fact());
+                        }
+                        sequencer.submitAll(group).forEach(CompletableFuture::join);
+                        groups.add(group);
+                        sequencer.submit(fact()).join();
+                    }
+                }));
+            }
+            for (Future<?> producer : producers) {
+                producer.get(30, TimeUnit.SECONDS);
+            }
+            producing.set(false);
+            derived.get(10, TimeUnit.SECONDS);
+            pool.shutdown();
+        }
+
+        for (List<EventEnvelope> group : groups) {
+            long first = group.get(0).getSequenceNumber();
+            for (int j = 0; j < groupSize; j++) {
+                assertEquals(first + j, group.get(j).getSequenceNumber(), "group split by another publish");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Submits racing close() are either rejected or appended; no future is left pending")
+    void submitsRacingClose_neverHang() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            InMemoryEventStore store = new InMemoryEventStore();
+            PublishSequencer sequencer = new PublishSequencer(64, 8, store, event -> CompletableFuture.completedFuture(null));
+            List<CompletableFuture<PublishSequencer.Appended>> accepted = new CopyOnWriteArrayList<>();
+            ExecutorService pool = Executors.newFixedThreadPool(2);
+            List<Future<?>> producers = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                producers.add(pool.submit(() -> {
+                    try {
+                        while (true) {
+                            accepted.add(sequencer.submit(fact()));
+                        }
+                    } catch (IllegalStateException closed) {
+                        // expected once close() wins
+                    }
+                }));
+            }
+            Thread.sleep(1);
+            sequencer.close();
+            for (Future<?> producer : producers) {
+                producer.get(10, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+
+            for (CompletableFuture<PublishSequencer.Appended> future : accepted) {
+                assertNotNull(future.get(10, TimeUnit.SECONDS).event().getSequenceNumber());
+            }
+            assertEquals(accepted.size(), store.getLatestSequence());
+        }
+    }
+
+    // ---- helpers ----
+
+    private EventEnvelope fact() {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(EventCategory.FACT_EVENT);
+        e.setEventName("TestEvent");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId("trace-sequencer");
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.SYSTEM);
+        p.setId("test");
+        p.setVersion("test-v1");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId("ORD-1");
+        e.setSubject(s);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("facts", Map.of("key", "value"));
+        payload.put("observed_from", "api");
+        e.setPayload(payload);
+        return e;
+    }
+}
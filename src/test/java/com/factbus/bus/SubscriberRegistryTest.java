@@ -0,0 +1,249 @@
+package com.factbus.bus;
+
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubscriberRegistryTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("A stalled subscriber neither blocks delivery nor other subscribers; drop-oldest keeps the newest events")
+    void dropOldest_isolatesSlowSubscriber() throws Exception {
+        SubscriberRegistry registry = new SubscriberRegistry(
+            new SubscriptionProperties(2, SlowConsumerPolicy.DROP_OLDEST, Duration.ZERO, 10, 64), new InMemoryEventStore(),
+            ThreadMode.PLATFORM, meters);
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> slow = new CopyOnWriteArrayList<>();
+        List<Long> fast = new CopyOnWriteArrayList<>();
+        String slowId = registry.subscribe(SubscriptionFilter.ALL, 0, event -> {
+            stalled.countDown();
+            awaitQuietly(release);
+            slow.add(event.getSequenceNumber());
+        }, () -> { });
+        registry.subscribe(SubscriptionFilter.ALL, 0, event -> fast.add(event.getSequenceNumber()), () -> { });
+
+        registry.deliver(event(1));
+        assertTrue(stalled.await(10, TimeUnit.SECONDS));
+        awaitSize(fast, 1);
+        for (long seq = 2; seq <= 6; seq++) {
+            registry.deliver(event(seq));
+            awaitSize(fast, (int) seq);
+        }
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), fast, "the healthy subscriber keeps up meanwhile");
+
+        assertEquals(2.0, meters.get("factbus.subscriber.lag").tag("subscription", slowId).gauge().value());
+        assertEquals(3.0, meters.get("factbus.subscriber.dropped").tag("subscription", slowId).counter().count());
+        release.countDown();
+        awaitSize(slow, 3);
+        assertEquals(List.of(1L, 5L, 6L), slow);
+
+        registry.close();
+        assertTrue(meters.find("factbus.subscriber.lag").gauges().isEmpty(), "meters go with the subscription");
+    }
+
+    @Test
+    @DisplayName("Under the disconnect policy an overflowing subscriber is removed and told so")
+    void disconnect_removesOverflowingSubscriber() throws Exception {
+        SubscriberRegistry registry = new SubscriberRegistry(
+            new SubscriptionProperties(1, SlowConsumerPolicy.DISCONNECT, Duration.ZERO, 10, 64), new InMemoryEventStore(),
+            ThreadMode.PLATFORM, meters);
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch disconnected = new CountDownLatch(1);
+        registry.subscribe(SubscriptionFilter.ALL, 0, event -> {
+            stalled.countDown();
+            awaitQuietly(new CountDownLatch(1));
+        }, disconnected::countDown);
+
+        registry.deliver(event(1));
+        assertTrue(stalled.await(10, TimeUnit.SECONDS));
+        registry.deliver(event(2));
+        registry.deliver(event(3));
+
+        assertTrue(disconnected.await(10, TimeUnit.SECONDS));
+        assertTrue(meters.find("factbus.subscriber.dropped").counters().isEmpty());
+        registry.close();
+    }
+
+    @Test
+    @DisplayName("A resumed subscription replays the backlog in pages, then goes live without gaps or duplicates")
+    void resume_replaysBacklogThenLive() throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore();
+        for (int i = 0; i < 95; i++) {
+            store.append(event(0));
+        }
+        // Tiny queue and pages: live events overflow the queue while the replay runs
+        SubscriberRegistry registry = new SubscriberRegistry(
+            new SubscriptionProperties(4, SlowConsumerPolicy.DISCONNECT, Duration.ZERO, 10, 64), store,
+            ThreadMode.PLATFORM, meters);
+        List<Long> received = new CopyOnWriteArrayList<>();
+        CountDownLatch disconnected = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        registry.subscribe(SubscriptionFilter.ALL, 7, event -> {
+            awaitQuietly(release);
+            received.add(event.getSequenceNumber());
+        }, disconnected::countDown);
+
+        // Fan-out of the last few stored events can still be in flight when the subscription starts
+        for (long seq = 90; seq <= 95; seq++) {
+            registry.deliver(store.queryBySequenceRange(seq, seq, 1).get(0));
+        }
+        for (int i = 0; i < 20; i++) {
+            registry.deliver(store.append(event(0)));
+        }
+
+        release.countDown();
+        awaitSize(received, 109);
+        assertEquals(LongStream.rangeClosed(7, 115).boxed().toList(), received);
+        assertEquals(1, disconnected.getCount(), "overflow while replaying is not a slow consumer");
+        registry.close();
+    }
+
+    @Test
+    @DisplayName("Events fanned out of order are delivered in sequence order, reading the skipped ones from the store")
+    void outOfOrderFanout_deliversInSequenceOrder() throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore();
+        SubscriberRegistry registry = new SubscriberRegistry(
+            new SubscriptionProperties(16, SlowConsumerPolicy.DISCONNECT, Duration.ZERO, 10, 64), store,
+            ThreadMode.PLATFORM, meters);
+        List<Long> all = new CopyOnWriteArrayList<>();
+        List<Long> byTrace = new CopyOnWriteArrayList<>();
+        registry.subscribe(SubscriptionFilter.ALL, 0, event -> all.add(event.getSequenceNumber()), () -> { });
+        registry.subscribe(new SubscriptionFilter("trace-x", null, null, null, null), 0,
+            event -> byTrace.add(event.getSequenceNumber()), () -> { });
+
+        List<EventEnvelope> appended = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            appended.add(store.append(event(0, i % 2 == 0 ? "trace-x" : "trace-y", EventCategory.FACT_EVENT,
+                "ORD-1", "OrderPaid")));
+        }
+        // Concurrent publishers hand their events to the fan-out in any order
+        for (int i : new int[] {2, 1, 0, 5, 3, 4}) {
+            registry.deliver(appended.get(i));
+        }
+
+        awaitSize(all, 6);
+        awaitSize(byTrace, 3);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), all);
+        assertEquals(List.of(2L, 4L, 6L), byTrace);
+        registry.close();
+    }
+
+    @Test
+    @DisplayName("Events reach only subscriptions whose filter matches, looking only at indexed candidates")
+    void routing_examinesOnlyMatchingBuckets() throws Exception {
+        SubscriberRegistry registry = new SubscriberRegistry(
+            new SubscriptionProperties(16, SlowConsumerPolicy.DROP_OLDEST, Duration.ZERO, 10, 64), new InMemoryEventStore(),
+            ThreadMode.PLATFORM, meters);
+        for (int i = 0; i < 1000; i++) {
+            registry.subscribe(new SubscriptionFilter("trace-" + i, null, null, null, null), 0, event -> { }, () -> { });
+        }
+        List<Long> byTrace = new CopyOnWriteArrayList<>();
+        List<Long> bySubjectAndName = new CopyOnWriteArrayList<>();
+        List<Long> byCategory = new CopyOnWriteArrayList<>();
+        String traceId = registry.subscribe(new SubscriptionFilter("trace-x", EventCategory.FACT_EVENT, null, null, null), 0,
+            event -> byTrace.add(event.getSequenceNumber()), () -> { });
+        registry.subscribe(new SubscriptionFilter(null, null, "order", "ORD-1", "OrderPaid"), 0,
+            event -> bySubjectAndName.add(event.getSequenceNumber()), () -> { });
+        registry.subscribe(new SubscriptionFilter(null, EventCategory.DECISION_EVENT, null, null, null), 0,
+            event -> byCategory.add(event.getSequenceNumber()), () -> { });
+
+        EventEnvelope paid = event(1, "trace-x", EventCategory.FACT_EVENT, "ORD-1", "OrderPaid");
+        assertEquals(2, registry.candidates(paid), "one trace bucket entry and one subject bucket entry");
+        registry.deliver(paid);
+        registry.deliver(event(2, "trace-x", EventCategory.DECISION_EVENT, "ORD-1", "OrderShipped"));
+        registry.deliver(event(3, "trace-7", EventCategory.FACT_EVENT, "ORD-2", "OrderPaid"));
+
+        awaitSize(byTrace, 1);
+        awaitSize(bySubjectAndName, 1);
+        awaitSize(byCategory, 1);
+        assertEquals(List.of(1L), byTrace, "category is checked on top of the trace match");
+        assertEquals(List.of(1L), bySubjectAndName);
+        assertEquals(List.of(2L), byCategory);
+
+        registry.unsubscribe(traceId);
+        assertEquals(1, registry.candidates(paid));
+        registry.close();
+        assertEquals(0, registry.candidates(paid));
+    }
+
+    @Test
+    @DisplayName("Routes added while other routes on the same key churn are never orphaned")
+    void routing_concurrentAddAndRemoveKeepsRoutes() throws Exception {
+        EventEnvelope paid = event(1, "trace-x", EventCategory.FACT_EVENT, "ORD-1", "OrderPaid");
+        SubscriptionFilter subject = new SubscriptionFilter(null, null, "order", "ORD-1", null);
+        for (int round = 0; round < 200; round++) {
+            SubscriptionRouter<Integer> router = new SubscriptionRouter<>();
+            AtomicBoolean stop = new AtomicBoolean();
+            Thread churn = new Thread(() -> {
+                while (!stop.get()) {
+                    router.add(subject, -1);
+                    router.remove(subject, -1);
+                }
+            });
+            churn.start();
+            for (int i = 0; i < 50; i++) {
+                router.add(subject, i);
+            }
+            stop.set(true);
+            churn.join();
+
+            Set<Integer> routed = new HashSet<>();
+            router.route(paid, routed::add);
+            assertEquals(50, routed.size(), "round " + round + " lost a route");
+        }
+    }
+
+    // ---- helpers ----
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        for (int i = 0; i < 500 && list.size() < size; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private EventEnvelope event(long sequence) {
+        EventEnvelope e = new EventEnvelope();
+        e.setEventId(UUID.randomUUID().toString());
+        e.setSequenceNumber(sequence);
+        return e;
+    }
+
+    private EventEnvelope event(long sequence, String traceId, EventCategory category, String subjectId, String eventName) {
+        EventEnvelope e = event(sequence);
+        e.setTraceId(traceId);
+        e.setEventCategory(category);
+        e.setEventName(eventName);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId(subjectId);
+        e.setSubject(s);
+        return e;
+    }
+}
@@ -0,0 +1,118 @@
+package com.factbus.contract;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventEnvelopeCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final EventEnvelopeCodec codec = new EventEnvelopeCodec();
+
+    private static final String PROPOSAL_JSON = """
+        {
+          "schema_version": "1.0.0",
+          "sequence_number": 123456789,
+          "event_id": "2f1e6f4e-8a3b-4c55-9d7e-0b1a2c3d4e5f",
+          "event_category": "PROPOSAL_EVENT",
+          "event_name": "ProposedRefund",
+          "occurred_at": "2026-02-14T10:15:30.123456789Z",
+          "trace_id": "trace-abc-001",
+          "causation_id": "7c9e6679-7425-40de-944b-e07fc1f90ae7",
+          "producer": { "type": "agent", "id": "refund-agent", "version": "2.3.1" },
+          "subject": { "type": "order", "id": "ORD-1001" },
+          "payload": {
+            "proposal_id": "prp-001",
+            "proposed_action": { "type": "refund", "amount": 500, "currency": "EUR", "partial": false },
+            "based_on_events": ["2f1e6f4e-8a3b-4c55-9d7e-0b1a2c3d4e5f"],
+            "risk_level": "medium",
+            "cost_estimate": 499.95,
+            "priority": 80,
+            "max_fact_age_ms": 9000000000,
+            "notes": null,
+            "tags": [1, -2, 3.5, "x", true, {"nested": []}]
+          }
+        }
+        """;
+
+    @Test
+    @DisplayName("Binary round trip reproduces the exact JSON contract representation")
+    void roundTrip_matchesJsonContract() throws Exception {
+        EventEnvelope parsed = objectMapper.readValue(PROPOSAL_JSON, EventEnvelope.class);
+
+        EventEnvelope decoded = codec.decode(codec.encode(parsed));
+
+        assertEquals(canonicalJson(), objectMapper.writeValueAsString(decoded));
+        assertEquals(objectMapper.writeValueAsString(parsed), objectMapper.writeValueAsString(decoded));
+        assertEquals(Long.class, decoded.getPayload().get("max_fact_age_ms").getClass());
+        assertEquals(Integer.class, decoded.getPayload().get("priority").getClass());
+    }
+
+    @Test
+    @DisplayName("Java-typed values, missing fields and non-canonical ids survive the round trip")
+    void roundTrip_preservesTypesAndNulls() {
+        EventEnvelope event = new EventEnvelope();
+        event.setEventId("NOT-A-UUID");
+        event.setCausationId("7C9E6679-7425-40DE-944B-E07FC1F90AE7");
+        event.setOccurredAt(Instant.ofEpochSecond(-62_000_000_000L, 7));
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("float", 1.25f);
+        payload.put("big_int", new BigInteger("123456789012345678901234567890"));
+        payload.put("big_dec", new BigDecimal("-1234.5000"));
+        payload.put("list", List.of("a", 1L));
+        event.setPayload(payload);
+
+        EventEnvelope decoded = codec.decode(codec.encode(event));
+
+        assertNull(decoded.getSequenceNumber());
+        assertNull(decoded.getSchemaVersion());
+        assertNull(decoded.getProducer());
+        assertNull(decoded.getSubject());
+        assertEquals("NOT-A-UUID", decoded.getEventId());
+        assertEquals("7C9E6679-7425-40DE-944B-E07FC1F90AE7", decoded.getCausationId());
+        assertEquals(event.getOccurredAt(), decoded.getOccurredAt());
+        assertEquals(payload, decoded.getPayload());
+        assertEquals(Float.class, decoded.getPayload().get("float").getClass());
+    }
+
+    @Test
+    @DisplayName("Shared dictionary scope defines strings once and decodes in order")
+    void sharedDictionary_definesStringsOnce() throws Exception {
+        EventEnvelopeCodec.Dictionary writer = new EventEnvelopeCodec.Dictionary();
+        EventEnvelope parsed = objectMapper.readValue(PROPOSAL_JSON, EventEnvelope.class);
+
+        byte[] first = codec.encode(parsed, writer);
+        byte[] second = codec.encode(parsed, writer);
+        assertTrue(second.length < first.length, "repeated strings should be dictionary references");
+
+        EventEnvelopeCodec.Dictionary reader = new EventEnvelopeCodec.Dictionary();
+        codec.decode(first, reader);
+        EventEnvelope decoded = codec.decode(second, reader);
+        assertEquals(canonicalJson(), objectMapper.writeValueAsString(decoded));
+
+        EventEnvelopeCodec.Dictionary cold = new EventEnvelopeCodec.Dictionary();
+        assertThrows(IllegalStateException.class, () -> codec.decode(second, cold));
+    }
+
+    @Test
+    @DisplayName("Binary encoding is smaller than the JSON encoding")
+    void encoding_isSmallerThanJson() throws Exception {
+        EventEnvelope parsed = objectMapper.readValue(PROPOSAL_JSON, EventEnvelope.class);
+        byte[] json = objectMapper.writeValueAsBytes(parsed);
+        byte[] binary = codec.encode(parsed);
+        assertTrue(binary.length < json.length, "binary=" + binary.length + " json=" + json.length);
+    }
+
+    private String canonicalJson() throws Exception {
+        return objectMapper.writeValueAsString(objectMapper.readTree(PROPOSAL_JSON));
+    }
+}
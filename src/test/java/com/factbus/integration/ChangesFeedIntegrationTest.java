@@ -0,0 +1,107 @@
+package com.factbus.integration;
+
+import com.factbus.bus.EventBusService;
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.ProducerType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Long-poll changes feed: a parked request answers with the first event past its
+ * cursor, and a wake-up that finds nothing past the cursor parks again until wait_ms.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ChangesFeedIntegrationTest {
+
+    @Autowired EventBusService bus;
+    @Autowired ObjectMapper objectMapper;
+    @LocalServerPort int port;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    @DisplayName("A parked long-poll answers with the next event on its subject")
+    void changes_answersWithNextEvent() throws Exception {
+        String subjectId = "ORD-LP-" + UUID.randomUUID().toString().substring(0, 8);
+        long cursor = bus.latestSequence();
+        CompletableFuture<HttpResponse<String>> response = poll(subjectId, cursor, 10_000);
+        Thread.sleep(200);
+        assertFalse(response.isDone(), "nothing to report yet");
+
+        EventEnvelope published = bus.publish(fact(subjectId));
+        JsonNode body = objectMapper.readTree(response.get(10, TimeUnit.SECONDS).body());
+        assertEquals(published.getEventId(), body.get("events").get(0).get("event_id").asText());
+        assertEquals(published.getSequenceNumber().longValue(), body.get("next_after_sequence").asLong());
+    }
+
+    @Test
+    @DisplayName("A wake-up for an event at or below the cursor parks again until wait_ms")
+    void changes_cursorAheadOfLog_waitsForTimeout() throws Exception {
+        String subjectId = "ORD-LP-" + UUID.randomUUID().toString().substring(0, 8);
+        long cursor = bus.latestSequence() + 1_000;
+        long started = System.nanoTime();
+        CompletableFuture<HttpResponse<String>> response = poll(subjectId, cursor, 1_500);
+        Thread.sleep(200);
+        bus.publish(fact(subjectId));
+
+        JsonNode body = objectMapper.readTree(response.get(10, TimeUnit.SECONDS).body());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) >= 1_400,
+            "answered before wait_ms although nothing passed the cursor");
+        assertEquals(0, body.get("events").size());
+        assertEquals(cursor, body.get("next_after_sequence").asLong());
+    }
+
+    // ---- helpers ----
+
+    private CompletableFuture<HttpResponse<String>> poll(String subjectId, long afterSequence, long waitMs) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                + "/v1/events/changes?subject_type=order&subject_id=" + subjectId
+                + "&after_sequence=" + afterSequence + "&wait_ms=" + waitMs))
+            .GET()
+            .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private EventEnvelope fact(String subjectId) {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(EventCategory.FACT_EVENT);
+        e.setEventName("ChangesTest");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId("trace-changes");
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.SYSTEM);
+        p.setId("test");
+        p.setVersion("test-v1");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId(subjectId);
+        e.setSubject(s);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("facts", Map.of("key", "value"));
+        payload.put("observed_from", "api");
+        e.setPayload(payload);
+        return e;
+    }
+}
@@ -0,0 +1,115 @@
+package com.factbus.integration;
+
+import com.factbus.bus.EventBusService;
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.EventEnvelopeCodec;
+import com.factbus.contract.ProducerType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Binary WebSocket stream: frames decode with the envelope codec, the server sends no
+ * more than the granted credits, and a filter change applies without reconnecting.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EventStreamSocketIntegrationTest {
+
+    @Autowired EventBusService bus;
+    @LocalServerPort int port;
+
+    private final EventEnvelopeCodec codec = new EventEnvelopeCodec();
+
+    @Test
+    @DisplayName("WebSocket stream honours credits and switches filters mid-stream")
+    void socketStream_creditsAndFilterChange() throws Exception {
+        String subjectA = "ORD-WS-" + UUID.randomUUID().toString().substring(0, 8);
+        String subjectB = subjectA + "-B";
+        BlockingQueue<EventEnvelope> received = new LinkedBlockingQueue<>();
+        // Server-side open may trail the client's; pin the start instead of relying on "live only"
+        long from = bus.latestSequence() + 1;
+        WebSocketSession session = new StandardWebSocketClient().execute(new BinaryWebSocketHandler() {
+            @Override
+            protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+                ByteBuffer payload = message.getPayload();
+                byte[] bytes = new byte[payload.remaining()];
+                payload.get(bytes);
+                received.add(codec.decode(bytes));
+            }
+        }, "ws://localhost:" + port + "/v1/events/ws?subjectType=order&subjectId=" + subjectA
+            + "&credits=2&from_sequence=" + from)
+            .get(10, TimeUnit.SECONDS);
+
+        String first = bus.publish(fact(subjectA)).getEventId();
+        String second = bus.publish(fact(subjectA)).getEventId();
+        String third = bus.publish(fact(subjectA)).getEventId();
+        String earlyB = bus.publish(fact(subjectB)).getEventId();
+
+        assertEquals(first, poll(received).getEventId());
+        assertEquals(second, poll(received).getEventId());
+        assertNull(received.poll(300, TimeUnit.MILLISECONDS), "out of credits");
+
+        session.sendMessage(new TextMessage("{\"credit\": 10}"));
+        assertEquals(third, poll(received).getEventId());
+
+        session.sendMessage(new TextMessage("{\"filter\": {\"subject_type\": \"order\", \"subject_id\": \"" + subjectB + "\"}}"));
+        String switched = bus.publish(fact(subjectB)).getEventId();
+        assertEquals(earlyB, poll(received).getEventId(), "the new filter applies from the stream's position on");
+        EventEnvelope next = poll(received);
+        assertEquals(switched, next.getEventId());
+        assertEquals(subjectB, next.getSubject().getId());
+        assertNull(received.poll(300, TimeUnit.MILLISECONDS));
+        session.close();
+    }
+
+    // ---- helpers ----
+
+    private EventEnvelope poll(BlockingQueue<EventEnvelope> received) throws InterruptedException {
+        EventEnvelope event = received.poll(10, TimeUnit.SECONDS);
+        assertNotNull(event, "expected a frame");
+        return event;
+    }
+
+    private EventEnvelope fact(String subjectId) {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(EventCategory.FACT_EVENT);
+        e.setEventName("StreamTest");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId("trace-ws");
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.SYSTEM);
+        p.setId("test");
+        p.setVersion("test-v1");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId(subjectId);
+        e.setSubject(s);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("facts", Map.of("key", "value"));
+        payload.put("observed_from", "api");
+        e.setPayload(payload);
+        return e;
+    }
+}
@@ -0,0 +1,190 @@
+package com.factbus.projection;
+
+import com.factbus.bus.EventStore;
+import com.factbus.bus.InMemoryEventStore;
+import com.factbus.contract.EventCategory;
+import com.factbus.contract.EventEnvelope;
+import com.factbus.contract.ProducerType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectionServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    @DisplayName("Projection follows appends incrementally and resolves pending decisions and executions")
+    void incremental_tracksPendingState() {
+        InMemoryEventStore store = new InMemoryEventStore();
+        ProjectionService service = new ProjectionService(store);
+
+        store.append(event(EventCategory.FACT_EVENT, "ORD-1", Map.of("observed_from", "api", "facts", Map.of("k", "v"))));
+        EventEnvelope decision = store.append(event(EventCategory.DECISION_EVENT, "ORD-1",
+            Map.of("outcome", "approved", "decision_id", "dec-1", "decision_on_proposals", List.of("prp-1"))));
+
+        SubjectProjection first = service.getProjection("order", "ORD-1").orElseThrow();
+        assertEquals(2, first.projectionVersion());
+        assertEquals(1, first.pendingDecisions().size());
+
+        store.append(event(EventCategory.EXECUTION_EVENT, "ORD-1",
+            Map.of("execution_id", "exe-1", "decision_event_id", decision.getEventId(), "status", "succeeded")));
+        SubjectProjection executing = service.getProjection("order", "ORD-1").orElseThrow();
+        assertTrue(executing.pendingDecisions().isEmpty());
+        assertEquals(List.of("exe-1"), executing.pendingExecutions().stream()
+            .map(SubjectProjection.ExecutionSnapshot::executionId).toList());
+
+        store.append(event(EventCategory.FACT_EVENT, "ORD-1",
+            Map.of("observed_from", "executor_feedback", "execution_id", "exe-1", "facts", Map.of())));
+        SubjectProjection done = service.getProjection("order", "ORD-1").orElseThrow();
+        assertTrue(done.pendingExecutions().isEmpty());
+        assertEquals(2, done.confirmedFacts().size());
+        assertEquals(4, done.projectionVersion());
+
+        assertTrue(service.getProjection("order", "ORD-404").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Restart loads the newest checkpoint and replays only the log tail")
+    void restart_replaysOnlyTailAfterCheckpoint() throws IOException {
+        InMemoryEventStore store = new InMemoryEventStore();
+        appendWorkload(store, 0, 300);
+
+        try (ProjectionService before = checkpointing(store)) {
+            before.checkpoint();
+        }
+        appendWorkload(store, 300, 20);
+
+        RangeRecordingStore recording = new RangeRecordingStore(store);
+        try (ProjectionService restarted = checkpointing(recording)) {
+            assertEquals(List.of(301L), recording.rangeStarts, "only the tail should be replayed");
+            assertEquals(320, restarted.appliedSequence());
+
+            ProjectionService rebuilt = new ProjectionService(store);
+            for (int s = 0; s < 5; s++) {
+                String subjectId = "ORD-" + s;
+                assertEquals(
+                    objectMapper.writeValueAsString(rebuilt.getProjection("order", subjectId).orElseThrow()),
+                    objectMapper.writeValueAsString(restarted.getProjection("order", subjectId).orElseThrow()));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A checkpoint ahead of the log is ignored and state is rebuilt from the log")
+    void restart_ignoresCheckpointAheadOfLog() throws IOException {
+        InMemoryEventStore longer = new InMemoryEventStore();
+        appendWorkload(longer, 0, 50);
+        try (ProjectionService service = checkpointing(longer)) {
+            service.checkpoint();
+        }
+
+        InMemoryEventStore shorter = new InMemoryEventStore();
+        appendWorkload(shorter, 0, 10);
+        try (ProjectionService service = checkpointing(shorter)) {
+            assertEquals(10, service.appliedSequence());
+            assertEquals(2, service.getProjection("order", "ORD-0").orElseThrow().confirmedFacts().size());
+        }
+    }
+
+    // ---- helpers ----
+
+    private ProjectionService checkpointing(EventStore store) {
+        return new ProjectionService(store, new ProjectionCheckpointStore(dir, 2, objectMapper), Duration.ofHours(1));
+    }
+
+    private void appendWorkload(EventStore store, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            String subjectId = "ORD-" + (i % 5);
+            store.append(event(EventCategory.FACT_EVENT, subjectId,
+                Map.of("observed_from", "api", "facts", Map.of("n", i))));
+        }
+    }
+
+    private EventEnvelope event(EventCategory category, String subjectId, Map<String, Object> payload) {
+        EventEnvelope e = new EventEnvelope();
+        e.setSchemaVersion("1.0.0");
+        e.setEventId(UUID.randomUUID().toString());
+        e.setEventCategory(category);
+        e.setEventName("TestEvent");
+        e.setOccurredAt(Instant.now());
+        e.setTraceId("trace-projection");
+        EventEnvelope.Producer p = new EventEnvelope.Producer();
+        p.setType(ProducerType.SYSTEM);
+        p.setId("test");
+        p.setVersion("test-v1");
+        e.setProducer(p);
+        EventEnvelope.Subject s = new EventEnvelope.Subject();
+        s.setType("order");
+        s.setId(subjectId);
+        e.setSubject(s);
+        e.setPayload(new LinkedHashMap<>(payload));
+        return e;
+    }
+
+    /** Delegating store that records where each sequence-range read starts. */
+    private static final class RangeRecordingStore implements EventStore {
+
+        private final EventStore delegate;
+        private final List<Long> rangeStarts = new ArrayList<>();
+
+        RangeRecordingStore(EventStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public EventEnvelope append(EventEnvelope event) {
+            return delegate.append(event);
+        }
+
+        @Override
+        public Optional<EventEnvelope> appendIfAbsent(EventEnvelope event) {
+            return delegate.appendIfAbsent(event);
+        }
+
+        @Override
+        public List<EventEnvelope> query(Optional<String> traceId, Optional<EventCategory> category,
+                                         Optional<String> subjectType, Optional<String> subjectId,
+                                         long afterSequence, int limit) {
+            return delegate.query(traceId, category, subjectType, subjectId, afterSequence, limit);
+        }
+
+        @Override
+        public boolean existsByEventId(String eventId) {
+            return delegate.existsByEventId(eventId);
+        }
+
+        @Override
+        public Optional<EventEnvelope> findByEventId(String eventId) {
+            return delegate.findByEventId(eventId);
+        }
+
+        @Override
+        public long getLatestSequence() {
+            return delegate.getLatestSequence();
+        }
+
+        @Override
+        public List<EventEnvelope> queryBySequenceRange(long fromSequence, long toSequence, int limit) {
+            rangeStarts.add(fromSequence);
+            return delegate.queryBySequenceRange(fromSequence, toSequence, limit);
+        }
+    }
+}